@@ -0,0 +1,88 @@
+package com.group10.clipnest.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // Authenticated principals keyed by email, see UserPrincipalService
+    public static final String PRINCIPALS = "principals";
+
+    // Per-user follow neighbourhood for @mention typeahead, see MentionCandidateService
+    public static final String MENTION_CANDIDATES = "mentionCandidates";
+
+    // Per-user follow suggestion lists, see FollowSuggestionService
+    public static final String FOLLOW_SUGGESTIONS = "followSuggestions";
+
+    @Value("${clipnest.cache.principals.maximum-size:10000}")
+    private long principalsMaximumSize;
+
+    @Value("${clipnest.cache.principals.ttl:5m}")
+    private Duration principalsTtl;
+
+    @Value("${clipnest.cache.mention-candidates.maximum-size:10000}")
+    private long mentionCandidatesMaximumSize;
+
+    @Value("${clipnest.cache.mention-candidates.ttl:2m}")
+    private Duration mentionCandidatesTtl;
+
+    @Value("${clipnest.cache.follow-suggestions.maximum-size:10000}")
+    private long followSuggestionsMaximumSize;
+
+    @Value("${clipnest.cache.follow-suggestions.ttl:30m}")
+    private Duration followSuggestionsTtl;
+
+    // Each cache gets its own bounds; recordStats() feeds the hit/miss cache metrics
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(PRINCIPALS, Caffeine.newBuilder()
+                .maximumSize(principalsMaximumSize)
+                .expireAfterWrite(principalsTtl)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(MENTION_CANDIDATES, Caffeine.newBuilder()
+                .maximumSize(mentionCandidatesMaximumSize)
+                .expireAfterWrite(mentionCandidatesTtl)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(FOLLOW_SUGGESTIONS, Caffeine.newBuilder()
+                .maximumSize(followSuggestionsMaximumSize)
+                .expireAfter(expireAfterRead(followSuggestionsTtl))
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+
+    // Entries live for ttl after they were last read; the refresh job rewrites them in place, and
+    // a write must not extend the life of a list nobody reads any more
+    private static Expiry<Object, Object> expireAfterRead(Duration ttl) {
+        long ttlNanos = ttl.toNanos();
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(Object key, Object value, long currentTime) {
+                return ttlNanos;
+            }
+
+            @Override
+            public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+
+            @Override
+            public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+                return ttlNanos;
+            }
+        };
+    }
+}
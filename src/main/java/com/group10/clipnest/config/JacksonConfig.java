@@ -0,0 +1,19 @@
+package com.group10.clipnest.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Spring Boot registers every Module bean with the shared ObjectMapper
+@Configuration
+public class JacksonConfig {
+
+    // Replaces reflective getter calls with generated lambdas; switch off to rule it out when debugging
+    @Bean
+    @ConditionalOnProperty(name = "clipnest.json.blackbird.enabled", havingValue = "true", matchIfMissing = true)
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
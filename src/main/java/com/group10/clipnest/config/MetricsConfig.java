@@ -0,0 +1,50 @@
+package com.group10.clipnest.config;
+
+import com.group10.clipnest.metrics.RepositoryCommandMetrics;
+import com.group10.clipnest.metrics.RepositoryMethodContext;
+import com.group10.clipnest.metrics.SlowQueryLog;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Per-repository-method Mongo metrics: every repository proxy records which method is running,
+ * and command listeners on the Mongo client time each command against that method and log
+ * slow queries with their filter shape.
+ * HTTP endpoint and repository invocation histograms come from Actuator, see application.properties.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer repositoryCommandMetrics(MeterRegistry meterRegistry) {
+        RepositoryCommandMetrics listener = new RepositoryCommandMetrics(meterRegistry);
+        return builder -> builder.addCommandListener(listener);
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer slowQueryLog(@Value("${clipnest.mongo.slow-query-threshold-ms:100}") long thresholdMs) {
+        SlowQueryLog listener = new SlowQueryLog(thresholdMs);
+        return builder -> builder.addCommandListener(listener);
+    }
+
+    // Static so it is registered before the repository factory beans it customizes
+    @Bean
+    public static BeanPostProcessor repositoryMethodContextInstaller() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(
+                                    new RepositoryMethodContext(repositoryInformation.getRepositoryInterface()))));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,121 @@
+package com.group10.clipnest.config;
+
+import com.group10.clipnest.model.Follow;
+import com.group10.clipnest.repository.FollowRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+
+/**
+ * Creates the indexes declared with @Indexed / @CompoundIndex on our documents.
+ * Spring Boot's auto-index-creation does this eagerly and aborts startup when
+ * Mongo is unreachable, so we do it once the app is up, on a background thread.
+ *
+ * Unique indexes are the exception: idempotent follows, conversation rows and group
+ * memberships are upserts that rely on them, so they are created before the web server
+ * takes requests. If Mongo cannot be reached then, startup goes on and the background
+ * pass creates them.
+ */
+@Configuration
+public class MongoIndexConfig implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoIndexConfig.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoMappingContext mongoMappingContext;
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Value("${clipnest.mongo.ensure-indexes:true}")
+    private boolean ensureIndexes;
+
+    // Runs once every bean exists, before the web server starts
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (ensureIndexes) {
+            createDeclaredIndexes(true);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!ensureIndexes) {
+            return;
+        }
+        Thread indexThread = new Thread(() -> createDeclaredIndexes(false), "mongo-index-init");
+        indexThread.setDaemon(true);
+        indexThread.start();
+    }
+
+    // Only the unique indexes, or all of them; existing ones are left as they are
+    void createDeclaredIndexes(boolean uniqueOnly) {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoMappingContext);
+        for (MongoPersistentEntity<?> entity : mongoMappingContext.getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(Document.class)) {
+                continue;
+            }
+            IndexOperations indexOps = mongoTemplate.indexOps(entity.getType());
+            int ensured = 0;
+            int failed = 0;
+            for (IndexDefinition index : resolver.resolveIndexFor(entity.getType())) {
+                if (uniqueOnly && !isUnique(index)) {
+                    continue;
+                }
+                try {
+                    createIndex(entity, indexOps, index);
+                    ensured++;
+                } catch (DataAccessResourceFailureException e) {
+                    logger.warn("❌ Mongo unreachable, indexes are left to the next pass: {}", e.getMessage());
+                    return;
+                } catch (DataAccessException e) {
+                    logger.warn("❌ Could not create index {} on {}: {}", index.getIndexOptions().get("name"),
+                            entity.getCollection(), e.getMessage());
+                    failed++;
+                }
+            }
+            if (ensured > 0 && failed == 0) {
+                logger.info("✅ {} ensured for collection {}", uniqueOnly ? "Unique indexes" : "Indexes", entity.getCollection());
+            }
+        }
+    }
+
+    // Duplicate follow edges left by follows that raced before the unique index existed are
+    // removed and the index retried; duplicates elsewhere are reported and left alone
+    private void createIndex(MongoPersistentEntity<?> entity, IndexOperations indexOps, IndexDefinition index) {
+        try {
+            indexOps.createIndex(index);
+        } catch (DuplicateKeyException e) {
+            if (entity.getType() != Follow.class) {
+                throw e;
+            }
+            long removed = followRepository.removeDuplicateEdges();
+            logger.warn("❌ Removed {} duplicate follow edges before building {}", removed, index.getIndexOptions().get("name"));
+            indexOps.createIndex(index);
+            followRepository.repairFollowCounters();
+        }
+    }
+
+    private static boolean isUnique(IndexDefinition index) {
+        return Boolean.TRUE.equals(index.getIndexOptions().get("unique"));
+    }
+}
@@ -0,0 +1,29 @@
+package com.group10.clipnest.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.group10.clipnest.push.InMemoryPushBroker;
+import com.group10.clipnest.push.LocalClusterPushBroker;
+import com.group10.clipnest.push.PushBroker;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Picks the fan-out used by the message push channel:
+ * "in-memory" for a single node, "local-cluster" to try multi-node delivery in one JVM.
+ */
+@Configuration
+public class PushConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "clipnest.push.broker", havingValue = "in-memory", matchIfMissing = true)
+    public PushBroker inMemoryPushBroker() {
+        return new InMemoryPushBroker();
+    }
+
+    @Bean(destroyMethod = "leave")
+    @ConditionalOnProperty(name = "clipnest.push.broker", havingValue = "local-cluster")
+    public PushBroker localClusterPushBroker(ObjectMapper objectMapper) {
+        return new LocalClusterPushBroker(objectMapper);
+    }
+}
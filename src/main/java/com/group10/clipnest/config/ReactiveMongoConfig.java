@@ -0,0 +1,47 @@
+package com.group10.clipnest.config;
+
+import com.group10.clipnest.repository.MessageRepository;
+import com.group10.clipnest.repository.ReactiveMessageRepository;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.reactivestreams.client.MongoClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.autoconfigure.mongo.ReactiveMongoClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
+
+/**
+ * The reactive Mongo client, template and Reactive* repositories only back ReactiveMessageController,
+ * so Spring Boot's reactive Mongo auto-configuration is excluded in application.properties and they
+ * are set up here under the same property as the controller. A deployment without the reactive API
+ * then opens no second connection pool with its own monitor threads. The client takes the same
+ * settings and customizers as the blocking one, and the template shares its converter.
+ */
+@Configuration
+@ConditionalOnProperty(name = "clipnest.messages.reactive.enabled", havingValue = "true")
+@EnableReactiveMongoRepositories(basePackageClasses = ReactiveMessageRepository.class)
+// Boot's blocking repository set-up backs off once reactive repositories are enabled by hand
+@EnableMongoRepositories(basePackageClasses = MessageRepository.class)
+public class ReactiveMongoConfig {
+
+    @Bean
+    public MongoClient reactiveMongoClient(ObjectProvider<MongoClientSettingsBuilderCustomizer> customizers,
+                                           MongoClientSettings settings) {
+        return new ReactiveMongoClientFactory(customizers.orderedStream().toList()).createMongoClient(settings);
+    }
+
+    @Bean
+    public ReactiveMongoTemplate reactiveMongoTemplate(MongoClient reactiveMongoClient,
+                                                       MongoDatabaseFactory mongoDatabaseFactory,
+                                                       MongoConverter mongoConverter) {
+        String database = mongoDatabaseFactory.getMongoDatabase().getName();
+        return new ReactiveMongoTemplate(new SimpleReactiveMongoDatabaseFactory(reactiveMongoClient, database), mongoConverter);
+    }
+}
@@ -0,0 +1,10 @@
+package com.group10.clipnest.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Background jobs live in the job package
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
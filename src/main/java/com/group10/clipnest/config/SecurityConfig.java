@@ -1,7 +1,9 @@
 package com.group10.clipnest.config;
 
 import com.group10.clipnest.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -13,17 +15,30 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    public static final String PROMETHEUS_PATH = "/actuator/prometheus";
+
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    // Sent by Prometheus as "Authorization: Bearer <token>"; empty means nothing can scrape
+    @Value("${clipnest.metrics.scrape-token:}")
+    private String scrapeToken;
+
+    // Raising the strength rehashes existing passwords at their next login, see PasswordHasher
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${clipnest.auth.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 
     @Bean
@@ -31,6 +46,8 @@ public class SecurityConfig {
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
+                        // Completion dispatch of an already-authorized stream (/api/messages/stream)
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(HttpMethod.POST, 
                             "/api/auth/login", 
                             "/api/auth/signup", 
@@ -38,12 +55,27 @@ public class SecurityConfig {
                             "/api/auth/reset-password", 
                             "/api/auth/google", 
                             "/api/auth/logout",
-                            "/api/auth/check-email",
-                            "/api/auth/direct-reset-password"
+                            "/api/auth/check-email"
                         ).permitAll()
+                        // Container health check carries no bearer token
+                        .requestMatchers(HttpMethod.GET, "/actuator/health").permitAll()
+                        // Metrics give away traffic and internals: Prometheus presents the scrape token,
+                        // people need to be admins
+                        .requestMatchers(HttpMethod.GET, PROMETHEUS_PATH).access(scrapeTokenPresented())
+                        .requestMatchers("/actuator/metrics/**").hasRole("ADMIN")
+                        // Full-collection maintenance jobs, only for clipnest.admin.emails
+                        .requestMatchers(HttpMethod.POST,
+                            "/api/auth/migrate-users",
+                            "/api/messages/rebuild-conversations",
+                            "/api/follow/repair-counts"
+                        ).hasRole("ADMIN")
+                        // Sets any account's password from just its email, so only admins may use it
+                        .requestMatchers(HttpMethod.POST, "/api/auth/direct-reset-password").hasRole("ADMIN")
                         .requestMatchers("/api/follow/**").authenticated()
                         .requestMatchers("/api/users/**").authenticated()
                         .requestMatchers("/api/messages/**").authenticated()
+                        .requestMatchers("/api/groups/**").authenticated()
+                        .requestMatchers("/api/rx/messages/**").authenticated()
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session
@@ -55,4 +87,14 @@ public class SecurityConfig {
 
         return http.build();
     }
+
+    private AuthorizationManager<RequestAuthorizationContext> scrapeTokenPresented() {
+        byte[] expected = ("Bearer " + scrapeToken).getBytes(StandardCharsets.UTF_8);
+        return (authentication, context) -> {
+            String header = context.getRequest().getHeader("Authorization");
+            // Constant-time comparison, so response timing does not leak the token
+            return new AuthorizationDecision(!scrapeToken.isEmpty() && header != null
+                    && MessageDigest.isEqual(expected, header.getBytes(StandardCharsets.UTF_8)));
+        };
+    }
 }
\ No newline at end of file
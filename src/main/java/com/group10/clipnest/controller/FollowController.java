@@ -1,9 +1,19 @@
 package com.group10.clipnest.controller;
 
+import com.group10.clipnest.job.FollowCounterConsistencyJob;
+import com.group10.clipnest.model.Follow;
 import com.group10.clipnest.model.User;
+import com.group10.clipnest.payload.FollowUserResponse;
+import com.group10.clipnest.payload.PageCursor;
+import com.group10.clipnest.payload.SuggestionResponse;
+import com.group10.clipnest.repository.FollowRepository;
 import com.group10.clipnest.repository.UserRepository;
+import com.group10.clipnest.search.MentionCandidateService;
 import com.group10.clipnest.security.JwtUtil;
+import com.group10.clipnest.suggestion.FollowSuggestionService;
+import com.group10.clipnest.security.UserPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -11,7 +21,9 @@ import org.springframework.web.bind.annotation.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @RestController
@@ -24,6 +36,24 @@ public class FollowController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Autowired
+    private MentionCandidateService mentionCandidateService;
+
+    @Autowired
+    private FollowSuggestionService followSuggestionService;
+
+    @Autowired
+    private FollowCounterConsistencyJob followCounterConsistencyJob;
+
+    @Value("${clipnest.follows.page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${clipnest.follows.max-page-size:200}")
+    private int maxPageSize;
+
     // Follow a user
     @PostMapping("")
     public ResponseEntity<?> followUser(@RequestBody Map<String, String> request, Authentication authentication) {
@@ -31,7 +61,7 @@ public class FollowController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not authenticated");
         }
 
-        User currentUser = (User) authentication.getPrincipal();
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
         String targetUsername = request.get("username");
 
         if (targetUsername == null || targetUsername.trim().isEmpty()) {
@@ -39,7 +69,7 @@ public class FollowController {
         }
 
         try {
-            Optional<User> targetUserOpt = userRepository.findByUsername(targetUsername);
+            Optional<User> targetUserOpt = userRepository.findProfileByUsername(targetUsername);
             if (targetUserOpt.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
             }
@@ -47,43 +77,30 @@ public class FollowController {
             User targetUser = targetUserOpt.get();
 
             // Can't follow yourself
-            if (currentUser.getEmail().equals(targetUser.getEmail())) {
+            if (principal.getEmail().equals(targetUser.getEmail())) {
                 return ResponseEntity.badRequest().body("Cannot follow yourself");
             }
 
-            // Initialize following list if null
-            if (currentUser.getFollowing() == null) {
-                currentUser.setFollowing(new HashSet<>());
-            }
-            if (targetUser.getFollowers() == null) {
-                targetUser.setFollowers(new HashSet<>());
-            }
+            // Idempotent: following twice leaves one edge and counts it once
+            boolean created = followRepository.follow(principal.getEmail(), targetUser.getEmail());
 
-            // Check if already following
-            if (currentUser.getFollowing().contains(targetUser.getEmail())) {
-                return ResponseEntity.badRequest().body("Already following this user");
+            if (created) {
+                mentionCandidateService.evict(principal.getEmail());
+                mentionCandidateService.evict(targetUser.getEmail());
+                followSuggestionService.removeSuggestion(principal.getEmail(), targetUser.getEmail());
+                logger.info("✅ {} started following {}", principal.getUsername(), targetUser.getUsername());
             }
 
-            // Add to following/followers lists
-            currentUser.getFollowing().add(targetUser.getEmail());
-            targetUser.getFollowers().add(currentUser.getEmail());
-
-            // Save both users
-            userRepository.save(currentUser);
-            userRepository.save(targetUser);
-
-            logger.info("✅ {} started following {}", currentUser.getUsername(), targetUser.getUsername());
-
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("message", "Successfully followed user");
-            response.put("followersCount", targetUser.getFollowers().size());
-            response.put("followingCount", currentUser.getFollowing().size());
+            response.put("message", created ? "Successfully followed user" : "Already following this user");
+            response.put("followersCount", followersCountOf(targetUser.getEmail()));
+            response.put("followingCount", followingCountOf(principal.getEmail()));
 
             return ResponseEntity.ok(response);
 
         } catch (Exception e) {
-            logger.error("❌ Follow failed for {} -> {}: {}", currentUser.getUsername(), targetUsername, e.getMessage());
+            logger.error("❌ Follow failed for {} -> {}: {}", principal.getUsername(), targetUsername, e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to follow user");
         }
     }
@@ -95,49 +112,35 @@ public class FollowController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not authenticated");
         }
 
-        User currentUser = (User) authentication.getPrincipal();
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
 
         try {
-            Optional<User> targetUserOpt = userRepository.findByUsername(username);
+            Optional<User> targetUserOpt = userRepository.findProfileByUsername(username);
             if (targetUserOpt.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
             }
 
             User targetUser = targetUserOpt.get();
 
-            // Initialize lists if null
-            if (currentUser.getFollowing() == null) {
-                currentUser.setFollowing(new HashSet<>());
-            }
-            if (targetUser.getFollowers() == null) {
-                targetUser.setFollowers(new HashSet<>());
-            }
+            // Idempotent: unfollowing when not following changes nothing
+            boolean removed = followRepository.unfollow(principal.getEmail(), targetUser.getEmail());
 
-            // Check if actually following
-            if (!currentUser.getFollowing().contains(targetUser.getEmail())) {
-                return ResponseEntity.badRequest().body("Not following this user");
+            if (removed) {
+                mentionCandidateService.evict(principal.getEmail());
+                mentionCandidateService.evict(targetUser.getEmail());
+                logger.info("✅ {} unfollowed {}", principal.getUsername(), targetUser.getUsername());
             }
 
-            // Remove from following/followers lists
-            currentUser.getFollowing().remove(targetUser.getEmail());
-            targetUser.getFollowers().remove(currentUser.getEmail());
-
-            // Save both users
-            userRepository.save(currentUser);
-            userRepository.save(targetUser);
-
-            logger.info("✅ {} unfollowed {}", currentUser.getUsername(), targetUser.getUsername());
-
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("message", "Successfully unfollowed user");
-            response.put("followersCount", targetUser.getFollowers().size());
-            response.put("followingCount", currentUser.getFollowing().size());
+            response.put("message", removed ? "Successfully unfollowed user" : "Not following this user");
+            response.put("followersCount", followersCountOf(targetUser.getEmail()));
+            response.put("followingCount", followingCountOf(principal.getEmail()));
 
             return ResponseEntity.ok(response);
 
         } catch (Exception e) {
-            logger.error("❌ Unfollow failed for {} -> {}: {}", currentUser.getUsername(), username, e.getMessage());
+            logger.error("❌ Unfollow failed for {} -> {}: {}", principal.getUsername(), username, e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to unfollow user");
         }
     }
@@ -149,10 +152,10 @@ public class FollowController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not authenticated");
         }
 
-        User currentUser = (User) authentication.getPrincipal();
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
 
         try {
-            Optional<User> targetUserOpt = userRepository.findByUsername(username);
+            Optional<User> targetUserOpt = userRepository.findProfileByUsername(username);
             if (targetUserOpt.isEmpty()) {
                 Map<String, Object> response = new HashMap<>();
                 response.put("isFollowing", false);
@@ -160,8 +163,8 @@ public class FollowController {
             }
 
             User targetUser = targetUserOpt.get();
-            boolean isFollowing = currentUser.getFollowing() != null && 
-                                currentUser.getFollowing().contains(targetUser.getEmail());
+            boolean isFollowing = followRepository.existsByFollowerIdAndFolloweeId(
+                principal.getEmail(), targetUser.getEmail());
 
             Map<String, Object> response = new HashMap<>();
             response.put("isFollowing", isFollowing);
@@ -169,44 +172,36 @@ public class FollowController {
             return ResponseEntity.ok(response);
 
         } catch (Exception e) {
-            logger.error("❌ Get follow status failed for {} -> {}: {}", currentUser.getUsername(), username, e.getMessage());
+            logger.error("❌ Get follow status failed for {} -> {}: {}", principal.getUsername(), username, e.getMessage());
             Map<String, Object> response = new HashMap<>();
             response.put("isFollowing", false);
             return ResponseEntity.ok(response);
         }
     }
 
-    // Get followers of a user
+    // Get followers of a user, newest first, one page at a time
     @GetMapping("/followers/{username}")
-    public ResponseEntity<?> getFollowers(@PathVariable String username) {
+    public ResponseEntity<?> getFollowers(@PathVariable String username,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer limit) {
+        PageCursor pageCursor;
+        try {
+            pageCursor = cursor != null ? PageCursor.decode(cursor) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid cursor");
+        }
+
         try {
-            Optional<User> userOpt = userRepository.findByUsername(username);
+            Optional<User> userOpt = userRepository.findProfileByUsername(username);
             if (userOpt.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
             }
 
             User user = userOpt.get();
-            Set<String> followerEmails = user.getFollowers() != null ? user.getFollowers() : new HashSet<>();
-
-            List<Map<String, Object>> followers = followerEmails.stream()
-                .map(email -> {
-                    Optional<User> followerOpt = userRepository.findByEmail(email);
-                    if (followerOpt.isPresent()) {
-                        User follower = followerOpt.get();
-                        Map<String, Object> followerData = new HashMap<>();
-                        followerData.put("id", follower.getEmail());
-                        followerData.put("username", follower.getUsername());
-                        followerData.put("email", follower.getEmail());
-                        followerData.put("name", follower.getFullName());
-                        followerData.put("followersCount", follower.getFollowers() != null ? follower.getFollowers().size() : 0);
-                        return followerData;
-                    }
-                    return null;
-                })
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+            int pageSize = pageSize(limit);
+            List<Follow> edges = followRepository.findFollowersPage(user.getEmail(), pageCursor, pageSize + 1);
 
-            return ResponseEntity.ok(followers);
+            return ResponseEntity.ok(toFollowPage(edges, pageSize, Follow::getFollowerId));
 
         } catch (Exception e) {
             logger.error("❌ Get followers failed for {}: {}", username, e.getMessage());
@@ -214,37 +209,29 @@ public class FollowController {
         }
     }
 
-    // Get users that a user is following
+    // Get users that a user is following, newest first, one page at a time
     @GetMapping("/following/{username}")
-    public ResponseEntity<?> getFollowing(@PathVariable String username) {
+    public ResponseEntity<?> getFollowing(@PathVariable String username,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer limit) {
+        PageCursor pageCursor;
+        try {
+            pageCursor = cursor != null ? PageCursor.decode(cursor) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid cursor");
+        }
+
         try {
-            Optional<User> userOpt = userRepository.findByUsername(username);
+            Optional<User> userOpt = userRepository.findProfileByUsername(username);
             if (userOpt.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
             }
 
             User user = userOpt.get();
-            Set<String> followingEmails = user.getFollowing() != null ? user.getFollowing() : new HashSet<>();
-
-            List<Map<String, Object>> following = followingEmails.stream()
-                .map(email -> {
-                    Optional<User> followingUserOpt = userRepository.findByEmail(email);
-                    if (followingUserOpt.isPresent()) {
-                        User followingUser = followingUserOpt.get();
-                        Map<String, Object> followingData = new HashMap<>();
-                        followingData.put("id", followingUser.getEmail());
-                        followingData.put("username", followingUser.getUsername());
-                        followingData.put("email", followingUser.getEmail());
-                        followingData.put("name", followingUser.getFullName());
-                        followingData.put("followersCount", followingUser.getFollowers() != null ? followingUser.getFollowers().size() : 0);
-                        return followingData;
-                    }
-                    return null;
-                })
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+            int pageSize = pageSize(limit);
+            List<Follow> edges = followRepository.findFollowingPage(user.getEmail(), pageCursor, pageSize + 1);
 
-            return ResponseEntity.ok(following);
+            return ResponseEntity.ok(toFollowPage(edges, pageSize, Follow::getFolloweeId));
 
         } catch (Exception e) {
             logger.error("❌ Get following failed for {}: {}", username, e.getMessage());
@@ -256,18 +243,17 @@ public class FollowController {
     @GetMapping("/counts/{username}")
     public ResponseEntity<?> getFollowCounts(@PathVariable String username) {
         try {
-            Optional<User> userOpt = userRepository.findByUsername(username);
+            Optional<User> userOpt = userRepository.findProfileByUsername(username);
             if (userOpt.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
             }
 
+            // Maintained counters from a projected lookup; the follow graph is never read
             User user = userOpt.get();
-            int followersCount = user.getFollowers() != null ? user.getFollowers().size() : 0;
-            int followingCount = user.getFollowing() != null ? user.getFollowing().size() : 0;
 
             Map<String, Object> response = new HashMap<>();
-            response.put("followers", followersCount);
-            response.put("following", followingCount);
+            response.put("followers", user.getFollowersCount());
+            response.put("following", user.getFollowingCount());
 
             return ResponseEntity.ok(response);
 
@@ -284,33 +270,68 @@ public class FollowController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not authenticated");
         }
 
-        User currentUser = (User) authentication.getPrincipal();
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
 
         try {
-            // Get all users except current user and users already being followed
-            Set<String> followingEmails = currentUser.getFollowing() != null ? currentUser.getFollowing() : new HashSet<>();
-            followingEmails.add(currentUser.getEmail()); // Exclude self
-
-            List<User> allUsers = userRepository.findAll();
-            List<Map<String, Object>> suggestions = allUsers.stream()
-                .filter(user -> !followingEmails.contains(user.getEmail()))
-                .limit(10) // Limit to 10 suggestions
-                .map(user -> {
-                    Map<String, Object> userData = new HashMap<>();
-                    userData.put("id", user.getEmail());
-                    userData.put("username", user.getUsername());
-                    userData.put("email", user.getEmail());
-                    userData.put("name", user.getFullName());
-                    userData.put("followersCount", user.getFollowers() != null ? user.getFollowers().size() : 0);
-                    return userData;
-                })
+            List<SuggestionResponse> suggestions = followSuggestionService.getSuggestions(principal.getEmail(), 10).stream()
+                .map(SuggestionResponse::from)
                 .collect(Collectors.toList());
 
             return ResponseEntity.ok(suggestions);
 
         } catch (Exception e) {
-            logger.error("❌ Get suggestions failed for {}: {}", currentUser.getUsername(), e.getMessage());
+            logger.error("❌ Get suggestions failed for {}: {}", principal.getUsername(), e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to get suggestions");
         }
     }
-} 
\ No newline at end of file
+
+    private long followersCountOf(String email) {
+        return userRepository.findFollowCountsByEmail(email).map(User::getFollowersCount).orElse(0L);
+    }
+
+    private long followingCountOf(String email) {
+        return userRepository.findFollowCountsByEmail(email).map(User::getFollowingCount).orElse(0L);
+    }
+
+    // Recompute follower/following counters from the edges and fix any that drifted; admins only, see SecurityConfig
+    @PostMapping("/repair-counts")
+    public ResponseEntity<?> repairFollowCounts() {
+        try {
+            long repaired = followCounterConsistencyJob.run();
+            return ResponseEntity.ok(Map.of("repaired", repaired));
+        } catch (Exception e) {
+            logger.error("❌ Follow counter repair failed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to repair follow counts");
+        }
+    }
+
+    private int pageSize(Integer limit) {
+        return limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+    }
+
+    // Resolve a page of edges (fetched with one extra row) to users with a single $in lookup
+    private Map<String, Object> toFollowPage(List<Follow> edges, int pageSize, Function<Follow, String> otherSide) {
+        boolean hasMore = edges.size() > pageSize;
+        List<Follow> page = hasMore ? edges.subList(0, pageSize) : edges;
+
+        List<String> emails = page.stream().map(otherSide).collect(Collectors.toList());
+        Map<String, User> usersByEmail = userRepository.findFollowListEntriesByEmailIn(emails).stream()
+            .collect(Collectors.toMap(User::getEmail, Function.identity(), (a, b) -> a));
+
+        // Keep edge order; skip edges whose user no longer exists
+        List<FollowUserResponse> users = emails.stream()
+            .map(usersByEmail::get)
+            .filter(Objects::nonNull)
+            .map(FollowUserResponse::from)
+            .collect(Collectors.toList());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("users", users);
+        response.put("hasMore", hasMore);
+        if (hasMore) {
+            Follow last = page.get(page.size() - 1);
+            response.put("nextCursor", new PageCursor(last.getCreatedAt(), last.getId()).encode());
+        }
+        return response;
+    }
+}
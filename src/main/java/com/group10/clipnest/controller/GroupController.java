@@ -0,0 +1,502 @@
+package com.group10.clipnest.controller;
+
+import com.group10.clipnest.messaging.MessageWriteBuffer;
+import com.group10.clipnest.model.Group;
+import com.group10.clipnest.model.GroupMember;
+import com.group10.clipnest.model.Message;
+import com.group10.clipnest.model.User;
+import com.group10.clipnest.payload.GroupMemberResponse;
+import com.group10.clipnest.payload.GroupRequest;
+import com.group10.clipnest.payload.GroupResponse;
+import com.group10.clipnest.payload.MessageResponse;
+import com.group10.clipnest.payload.PageCursor;
+import com.group10.clipnest.repository.GroupMemberRepository;
+import com.group10.clipnest.repository.GroupRepository;
+import com.group10.clipnest.repository.MessageRepository;
+import com.group10.clipnest.repository.UserRepository;
+import com.group10.clipnest.security.UserPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@RestController
+@CrossOrigin(origins = "*")
+@RequestMapping("/api/groups")
+public class GroupController {
+
+    private static final Logger logger = LoggerFactory.getLogger(GroupController.class);
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private GroupMemberRepository groupMemberRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MessageWriteBuffer messageWriteBuffer;
+
+    @Value("${clipnest.messages.page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${clipnest.messages.max-page-size:200}")
+    private int maxPageSize;
+
+    @Value("${clipnest.groups.list-size:20}")
+    private int defaultListSize;
+
+    @Value("${clipnest.groups.max-usernames-per-request:500}")
+    private int maxUsernamesPerRequest;
+
+    @Value("${clipnest.groups.unread-cap:100}")
+    private int unreadCap;
+
+    // Create a group with the caller as owner and the given users as members
+    @PostMapping("")
+    public ResponseEntity<?> createGroup(@RequestBody GroupRequest request, Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not authenticated");
+        }
+
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+
+        if (request.getName() == null || request.getName().trim().isEmpty()) {
+            return ResponseEntity.badRequest().body("Group name is required");
+        }
+        List<String> usernames = request.getUsernames() == null ? List.of() : request.getUsernames();
+        if (usernames.size() > maxUsernamesPerRequest) {
+            return ResponseEntity.badRequest().body("At most " + maxUsernamesPerRequest + " usernames per request");
+        }
+
+        try {
+            Group group = new Group();
+            group.setName(request.getName().trim());
+            group.setOwnerId(principal.getEmail());
+            group.setCreatedAt(LocalDateTime.now());
+            group.setMemberCount(0);
+            Group savedGroup = groupRepository.save(group);
+
+            // memberCount moves with each membership actually created
+            groupMemberRepository.addMember(savedGroup.getId(), principal.getEmail(), principal.getUsername());
+            int added = 1 + addMembers(savedGroup.getId(), usernames);
+            savedGroup.setMemberCount(added);
+
+            logger.info("✅ {} created group {} with {} members", principal.getUsername(), savedGroup.getId(), added);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("group", GroupResponse.from(savedGroup, 0));
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("❌ Failed to create group for {}: {}", principal.getUsername(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to create group");
+        }
+    }
+
+    // Groups of the current user, newest membership first, one page at a time
+    @GetMapping("")
+    public ResponseEntity<?> getMyGroups(@RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) Integer limit,
+                                         Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not authenticated");
+        }
+
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+
+        PageCursor pageCursor;
+        try {
+            pageCursor = cursor != null ? PageCursor.decode(cursor) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid cursor");
+        }
+
+        int pageSize = limit == null ? defaultListSize : Math.max(1, Math.min(limit, maxPageSize));
+
+        try {
+            List<GroupMember> memberships = new ArrayList<>(groupMemberRepository.findMembershipsPage(
+                principal.getEmail(), pageCursor, pageSize + 1));
+
+            boolean hasMore = memberships.size() > pageSize;
+            if (hasMore) {
+                memberships.remove(memberships.size() - 1);
+            }
+
+            // One batched lookup for the page's groups instead of one per membership
+            List<String> groupIds = memberships.stream().map(GroupMember::getGroupId).collect(Collectors.toList());
+            Map<String, Group> groups = new HashMap<>();
+            groupRepository.findAllById(groupIds).forEach(group -> groups.put(group.getId(), group));
+
+            Map<String, Long> unreadCounts = unreadCounts(memberships, groups);
+
+            List<GroupResponse> groupList = new ArrayList<>(memberships.size());
+            for (GroupMember membership : memberships) {
+                Group group = groups.get(membership.getGroupId());
+                if (group != null) {
+                    groupList.add(GroupResponse.from(group, unreadCounts.getOrDefault(group.getId(), 0L)));
+                }
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("groups", groupList);
+            response.put("hasMore", hasMore);
+            if (hasMore) {
+                GroupMember last = memberships.get(memberships.size() - 1);
+                response.put("nextCursor", new PageCursor(last.getJoinedAt(), last.getId()).encode());
+            }
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("❌ Failed to get groups for {}: {}", principal.getUsername(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to get groups");
+        }
+    }
+
+    // Members of a group in email order, one page at a time; only members may look
+    @GetMapping("/{groupId}/members")
+    public ResponseEntity<?> getMembers(@PathVariable String groupId,
+                                        @RequestParam(required = false) String after,
+                                        @RequestParam(required = false) Integer limit,
+                                        Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not authenticated");
+        }
+
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+
+        try {
+            if (!groupMemberRepository.existsByGroupIdAndMemberId(groupId, principal.getEmail())) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Group not found");
+            }
+
+            List<GroupMember> members = new ArrayList<>(groupMemberRepository.findMembersPage(groupId, after, pageSize + 1));
+            boolean hasMore = members.size() > pageSize;
+            if (hasMore) {
+                members.remove(members.size() - 1);
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("members", members.stream().map(GroupMemberResponse::from).collect(Collectors.toList()));
+            response.put("hasMore", hasMore);
+            if (hasMore) {
+                response.put("after", members.get(members.size() - 1).getMemberId());
+            }
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("❌ Failed to get members of group {}: {}", groupId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to get group members");
+        }
+    }
+
+    // Add members; only the owner manages membership
+    @PostMapping("/{groupId}/members")
+    public ResponseEntity<?> addGroupMembers(@PathVariable String groupId,
+                                             @RequestBody GroupRequest request,
+                                             Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not authenticated");
+        }
+
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+
+        if (request.getUsernames() == null || request.getUsernames().isEmpty()) {
+            return ResponseEntity.badRequest().body("Usernames are required");
+        }
+        if (request.getUsernames().size() > maxUsernamesPerRequest) {
+            return ResponseEntity.badRequest().body("At most " + maxUsernamesPerRequest + " usernames per request");
+        }
+
+        try {
+            Optional<Group> groupOpt = groupRepository.findById(groupId);
+            if (groupOpt.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Group not found");
+            }
+            if (!principal.getEmail().equals(groupOpt.get().getOwnerId())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Only the group owner can add members");
+            }
+
+            int added = addMembers(groupId, request.getUsernames());
+
+            logger.info("✅ {} added {} members to group {}", principal.getUsername(), added, groupId);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("added", added);
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("❌ Failed to add members to group {}: {}", groupId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to add group members");
+        }
+    }
+
+    // Remove a member (owner) or leave the group (anyone but the owner)
+    @DeleteMapping("/{groupId}/members/{username}")
+    public ResponseEntity<?> removeGroupMember(@PathVariable String groupId,
+                                               @PathVariable String username,
+                                               Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not authenticated");
+        }
+
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+
+        try {
+            Optional<Group> groupOpt = groupRepository.findById(groupId);
+            if (groupOpt.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Group not found");
+            }
+            Group group = groupOpt.get();
+
+            Optional<User> userOpt = userRepository.findProfileByUsername(username);
+            if (userOpt.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
+            }
+            String memberEmail = userOpt.get().getEmail();
+
+            boolean isOwner = principal.getEmail().equals(group.getOwnerId());
+            if (!isOwner && !principal.getEmail().equals(memberEmail)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Only the group owner can remove other members");
+            }
+            if (memberEmail.equals(group.getOwnerId())) {
+                return ResponseEntity.badRequest().body("The group owner cannot leave the group");
+            }
+
+            // Idempotent: removing someone who is not a member changes nothing
+            boolean removed = groupMemberRepository.removeMember(groupId, memberEmail);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", removed ? "Member removed" : "Not a member of this group");
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("❌ Failed to remove {} from group {}: {}", username, groupId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to remove group member");
+        }
+    }
+
+    // Send a message to the group; it goes through the same batched writer as direct messages
+    @PostMapping("/{groupId}/messages")
+    public ResponseEntity<?> sendGroupMessage(@PathVariable String groupId,
+                                              @RequestBody Map<String, String> request,
+                                              Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not authenticated");
+        }
+
+        UserPrincipal sender = (UserPrincipal) authentication.getPrincipal();
+        String content = request.get("content");
+
+        if (content == null) {
+            return ResponseEntity.badRequest().body("Content is required");
+        }
+
+        try {
+            if (!groupMemberRepository.existsByGroupIdAndMemberId(groupId, sender.getEmail())) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Group not found");
+            }
+
+            Message message = new Message();
+            message.setSenderId(sender.getEmail());
+            message.setSenderUsername(sender.getUsername());
+            message.setContent(content);
+            message.setType(request.getOrDefault("type", "text"));
+            message.setGroupId(groupId);
+            message.setGroupMessage(true);
+            message.setImageUri(request.get("imageUri"));
+            message.setAudioUri(request.get("audioUri"));
+            message.setReplyToMessageId(request.get("replyToMessageId"));
+
+            if (!messageWriteBuffer.offer(message)) {
+                if (messageWriteBuffer.isStopped()) {
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Shutting down, try again shortly");
+                }
+                logger.warn("❌ Write queue full, rejecting group message from {} to {}", sender.getUsername(), groupId);
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body("Too many messages, try again shortly");
+            }
+
+            // The sender has seen their own message
+            groupMemberRepository.advanceReadWatermark(groupId, sender.getEmail(), message.getTimestamp(), message.getId());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", MessageResponse.from(message));
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("❌ Failed to send group message: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to send message");
+        }
+    }
+
+    // Group timeline, one page at a time (newest page first), same cursors as direct conversations
+    @GetMapping("/{groupId}/messages")
+    public ResponseEntity<?> getGroupMessages(@PathVariable String groupId,
+                                              @RequestParam(required = false) String before,
+                                              @RequestParam(required = false) String after,
+                                              @RequestParam(required = false) Integer limit,
+                                              Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not authenticated");
+        }
+
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+
+        if (before != null && after != null) {
+            return ResponseEntity.badRequest().body("Use either before or after, not both");
+        }
+
+        PageCursor beforeCursor;
+        PageCursor afterCursor;
+        try {
+            beforeCursor = before != null ? PageCursor.decode(before) : null;
+            afterCursor = after != null ? PageCursor.decode(after) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid cursor");
+        }
+
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+
+        try {
+            Optional<GroupMember> membership = groupMemberRepository.findByGroupIdAndMemberId(groupId, principal.getEmail());
+            if (membership.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Group not found");
+            }
+
+            // Fetch one extra message to know whether there is more history in this direction
+            List<Message> messages = new ArrayList<>(messageRepository.findGroupPage(
+                groupId, beforeCursor, afterCursor, pageSize + 1));
+
+            boolean hasMore = messages.size() > pageSize;
+            if (hasMore) {
+                messages.remove(afterCursor != null ? messages.size() - 1 : 0);
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("messages", messages.stream().map(MessageResponse::from).collect(Collectors.toList()));
+            response.put("hasMore", hasMore);
+            response.put("lastReadMessageId", membership.get().getLastReadMessageId());
+            if (!messages.isEmpty()) {
+                response.put("beforeCursor", toCursor(messages.get(0)).encode());
+                response.put("afterCursor", toCursor(messages.get(messages.size() - 1)).encode());
+            } else if (afterCursor != null) {
+                response.put("afterCursor", after);
+            }
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("❌ Failed to get messages of group {}: {}", groupId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to get group messages");
+        }
+    }
+
+    // Move the caller's read watermark to a message, or to the latest one; nothing per message is written
+    @PostMapping("/{groupId}/read")
+    public ResponseEntity<?> markGroupRead(@PathVariable String groupId,
+                                           @RequestParam(required = false) String upToMessageId,
+                                           Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not authenticated");
+        }
+
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+
+        try {
+            if (!groupMemberRepository.existsByGroupIdAndMemberId(groupId, principal.getEmail())) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Group not found");
+            }
+
+            Message watermark;
+            if (upToMessageId != null) {
+                Optional<Message> messageOpt = messageRepository.findById(upToMessageId);
+                if (messageOpt.isEmpty() || !groupId.equals(messageOpt.get().getGroupId())) {
+                    return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Message not found in this group");
+                }
+                watermark = messageOpt.get();
+            } else {
+                List<Message> latest = messageRepository.findGroupPage(groupId, null, null, 1);
+                if (latest.isEmpty()) {
+                    return ResponseEntity.ok(Map.of("success", true, "unreadCount", 0));
+                }
+                watermark = latest.get(0);
+            }
+
+            groupMemberRepository.advanceReadWatermark(groupId, principal.getEmail(), watermark.getTimestamp(), watermark.getId());
+
+            // Recount from the stored watermark, which may already be past the requested one
+            GroupMember membership = groupMemberRepository.findByGroupIdAndMemberId(groupId, principal.getEmail()).orElseThrow();
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("lastReadMessageId", membership.getLastReadMessageId());
+            response.put("unreadCount", unreadCount(membership));
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("❌ Failed to mark group {} read for {}: {}", groupId, principal.getUsername(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to mark group as read");
+        }
+    }
+
+    // Resolve usernames in one query and add each; returns how many were not members yet
+    private int addMembers(String groupId, List<String> usernames) {
+        if (usernames.isEmpty()) {
+            return 0;
+        }
+        int added = 0;
+        for (User user : userRepository.findProfilesByUsernameIn(new HashSet<>(usernames))) {
+            if (groupMemberRepository.addMember(groupId, user.getEmail(), user.getUsername())) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    private long unreadCount(GroupMember membership) {
+        return messageRepository.countGroupUnread(membership.getGroupId(), membership.getMemberId(),
+            membership.getLastReadAt(), membership.getLastReadMessageId(), unreadCap);
+    }
+
+    // Unread counts for a page of memberships in one aggregation. Groups whose latest message is
+    // older than the member's watermark cannot have anything unread and are not counted at all.
+    private Map<String, Long> unreadCounts(List<GroupMember> memberships, Map<String, Group> groups) {
+        List<GroupMember> toCount = memberships.stream()
+            .filter(membership -> {
+                Group group = groups.get(membership.getGroupId());
+                return group != null && (group.getLastTimestamp() == null || membership.getLastReadAt() == null
+                    || !group.getLastTimestamp().isBefore(membership.getLastReadAt()));
+            })
+            .collect(Collectors.toList());
+        return toCount.isEmpty() ? Map.of() : messageRepository.countGroupsUnread(toCount, unreadCap);
+    }
+
+    private PageCursor toCursor(Message message) {
+        return new PageCursor(message.getTimestamp(), message.getId());
+    }
+}
@@ -1,10 +1,22 @@
 package com.group10.clipnest.controller;
 
+import com.group10.clipnest.job.ConversationIdBackfillJob;
+import com.group10.clipnest.job.ConversationRebuildJob;
+import com.group10.clipnest.messaging.MessageWriteBuffer;
+import com.group10.clipnest.model.Conversation;
 import com.group10.clipnest.model.Message;
 import com.group10.clipnest.model.User;
+import com.group10.clipnest.payload.ConversationResponse;
+import com.group10.clipnest.payload.MessageResponse;
+import com.group10.clipnest.payload.PageCursor;
+import com.group10.clipnest.push.PushEvent;
+import com.group10.clipnest.push.PushSessionRegistry;
+import com.group10.clipnest.repository.ConversationRepository;
 import com.group10.clipnest.repository.MessageRepository;
 import com.group10.clipnest.repository.UserRepository;
+import com.group10.clipnest.security.UserPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -13,6 +25,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -29,6 +42,31 @@ public class MessageController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ConversationRepository conversationRepository;
+
+    @Autowired
+    private PushSessionRegistry pushSessionRegistry;
+
+    @Autowired
+    private MessageWriteBuffer messageWriteBuffer;
+
+    @Autowired
+    private ConversationIdBackfillJob conversationIdBackfillJob;
+
+    @Autowired
+    private ConversationRebuildJob conversationRebuildJob;
+
+    @Value("${clipnest.messages.page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${clipnest.messages.max-page-size:200}")
+    private int maxPageSize;
+
+    @Value("${clipnest.messages.inbox-size:20}")
+    private int defaultInboxSize;
+
+
     // Send a message
     @PostMapping("/send")
     public ResponseEntity<?> sendMessage(@RequestBody Map<String, String> request, Authentication authentication) {
@@ -36,7 +74,7 @@ public class MessageController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not authenticated");
         }
 
-        User sender = (User) authentication.getPrincipal();
+        UserPrincipal sender = (UserPrincipal) authentication.getPrincipal();
         String receiverUsername = request.get("receiverUsername");
         String content = request.get("content");
         String type = request.getOrDefault("type", "text");
@@ -47,7 +85,7 @@ public class MessageController {
 
         try {
             // Find receiver
-            Optional<User> receiverOpt = userRepository.findByUsername(receiverUsername);
+            Optional<User> receiverOpt = userRepository.findProfileByUsername(receiverUsername);
             if (receiverOpt.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Receiver not found");
             }
@@ -62,9 +100,8 @@ public class MessageController {
             message.setReceiverUsername(receiver.getUsername());
             message.setContent(content);
             message.setType(type);
-            message.setTimestamp(LocalDateTime.now());
             message.setRead(false);
-            message.setDelivered(true);
+            message.setDelivered(false); // Set once the receiver acknowledges the pushed message
             message.setGroupMessage(false);
 
             // Handle optional fields
@@ -78,15 +115,21 @@ public class MessageController {
                 message.setReplyToMessageId(request.get("replyToMessageId"));
             }
 
-            // Save message
-            Message savedMessage = messageRepository.save(message);
+            // Queue for the batched writer, which also updates the inbox rows and pushes to the receiver
+            if (!messageWriteBuffer.offer(message)) {
+                if (messageWriteBuffer.isStopped()) {
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Shutting down, try again shortly");
+                }
+                logger.warn("❌ Write queue full, rejecting message from {} to {}", sender.getUsername(), receiver.getUsername());
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body("Too many messages, try again shortly");
+            }
 
             logger.info("✅ Message sent from {} to {}", sender.getUsername(), receiver.getUsername());
 
             // Return message data
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("message", mapMessageToResponse(savedMessage));
+            response.put("message", MessageResponse.from(message));
 
             return ResponseEntity.ok(response);
 
@@ -96,40 +139,75 @@ public class MessageController {
         }
     }
 
-    // Get conversation with another user
+    // Get conversation with another user, one page at a time (newest page first)
     @GetMapping("/conversation/{username}")
-    public ResponseEntity<?> getConversation(@PathVariable String username, Authentication authentication) {
+    public ResponseEntity<?> getConversation(@PathVariable String username,
+                                             @RequestParam(required = false) String before,
+                                             @RequestParam(required = false) String after,
+                                             @RequestParam(required = false) Integer limit,
+                                             Authentication authentication) {
         if (authentication == null || !authentication.isAuthenticated()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not authenticated");
         }
 
-        User currentUser = (User) authentication.getPrincipal();
+        UserPrincipal currentUser = (UserPrincipal) authentication.getPrincipal();
+
+        if (before != null && after != null) {
+            return ResponseEntity.badRequest().body("Use either before or after, not both");
+        }
+
+        PageCursor beforeCursor;
+        PageCursor afterCursor;
+        try {
+            beforeCursor = before != null ? PageCursor.decode(before) : null;
+            afterCursor = after != null ? PageCursor.decode(after) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid cursor");
+        }
+
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
 
         try {
             // Find the other user
-            Optional<User> otherUserOpt = userRepository.findByUsername(username);
+            Optional<User> otherUserOpt = userRepository.findProfileByUsername(username);
             if (otherUserOpt.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
             }
 
             User otherUser = otherUserOpt.get();
 
-            // Get conversation messages
-            List<Message> messages = messageRepository.findConversationBetweenUsers(
-                currentUser.getEmail(), otherUser.getEmail());
+            // Fetch one extra message to know whether there is more history in this direction.
+            // Until the conversationId backfill has caught up, match on sender/receiver instead.
+            List<Message> messages = new ArrayList<>(messageRepository.findConversationPage(
+                currentUser.getEmail(), otherUser.getEmail(), beforeCursor, afterCursor, pageSize + 1,
+                conversationIdBackfillJob.isComplete()));
 
-            // Sort by timestamp
-            messages.sort(Comparator.comparing(Message::getTimestamp));
+            boolean hasMore = messages.size() > pageSize;
+            if (hasMore) {
+                // Pages come back oldest first; drop the message farthest from the cursor
+                messages.remove(afterCursor != null ? messages.size() - 1 : 0);
+            }
 
             // Convert to response format
-            List<Map<String, Object>> messageList = messages.stream()
-                .map(this::mapMessageToResponse)
+            List<MessageResponse> messageList = messages.stream()
+                .map(MessageResponse::from)
                 .collect(Collectors.toList());
 
+            Map<String, Object> response = new HashMap<>();
+            response.put("messages", messageList);
+            response.put("hasMore", hasMore);
+            if (!messages.isEmpty()) {
+                response.put("beforeCursor", toCursor(messages.get(0)).encode());
+                response.put("afterCursor", toCursor(messages.get(messages.size() - 1)).encode());
+            } else if (afterCursor != null) {
+                // Nothing newer yet: keep polling from the same position
+                response.put("afterCursor", after);
+            }
+
             logger.info("✅ Retrieved {} messages for conversation between {} and {}", 
                        messages.size(), currentUser.getUsername(), username);
 
-            return ResponseEntity.ok(messageList);
+            return ResponseEntity.ok(response);
 
         } catch (Exception e) {
             logger.error("❌ Failed to get conversation: {}", e.getMessage());
@@ -137,64 +215,51 @@ public class MessageController {
         }
     }
 
-    // Get all conversations for current user
+    // Get conversations for current user, most recent first, one page at a time
     @GetMapping("/conversations")
-    public ResponseEntity<?> getAllConversations(Authentication authentication) {
+    public ResponseEntity<?> getAllConversations(@RequestParam(required = false) String cursor,
+                                                 @RequestParam(required = false) Integer limit,
+                                                 Authentication authentication) {
         if (authentication == null || !authentication.isAuthenticated()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not authenticated");
         }
 
-        User currentUser = (User) authentication.getPrincipal();
+        UserPrincipal currentUser = (UserPrincipal) authentication.getPrincipal();
 
+        PageCursor pageCursor;
         try {
-            List<Message> allMessages = messageRepository.findAllConversationsForUser(currentUser.getEmail());
-
-            // Group messages by conversation partner
-            Map<String, Message> latestMessages = new HashMap<>();
-            
-            for (Message msg : allMessages) {
-                String partnerId = msg.getSenderId().equals(currentUser.getEmail()) 
-                    ? msg.getReceiverId() : msg.getSenderId();
-                
-                Message existing = latestMessages.get(partnerId);
-                if (existing == null || msg.getTimestamp().isAfter(existing.getTimestamp())) {
-                    latestMessages.put(partnerId, msg);
-                }
-            }
+            pageCursor = cursor != null ? PageCursor.decode(cursor) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid cursor");
+        }
+
+        int pageSize = limit == null ? defaultInboxSize : Math.max(1, Math.min(limit, maxPageSize));
+
+        try {
+            // Summary rows are maintained on write, so the inbox is a single index range scan
+            List<Conversation> summaries = new ArrayList<>(conversationRepository.findInboxPage(
+                currentUser.getEmail(), pageCursor, pageSize + 1));
 
-            // Convert to conversation list
-            List<Map<String, Object>> conversations = new ArrayList<>();
-            for (Message msg : latestMessages.values()) {
-                boolean isCurrentUserSender = msg.getSenderId().equals(currentUser.getEmail());
-                String partnerEmail = isCurrentUserSender ? msg.getReceiverId() : msg.getSenderId();
-                String partnerUsername = isCurrentUserSender ? msg.getReceiverUsername() : msg.getSenderUsername();
-
-                // Get unread count
-                long unreadCount = messageRepository.countByReceiverIdAndSenderIdAndIsReadFalse(
-                    currentUser.getEmail(), partnerEmail);
-
-                Map<String, Object> conversation = new HashMap<>();
-                conversation.put("id", partnerUsername);
-                conversation.put("username", partnerUsername);
-                conversation.put("name", partnerUsername); // Could be enhanced with full names
-                conversation.put("lastMessage", msg.getContent());
-                conversation.put("lastTimestamp", msg.getTimestamp().toString());
-                conversation.put("unreadCount", unreadCount);
-                conversation.put("isGroup", false);
-
-                conversations.add(conversation);
+            boolean hasMore = summaries.size() > pageSize;
+            if (hasMore) {
+                summaries.remove(summaries.size() - 1);
             }
 
-            // Sort by last message timestamp (newest first)
-            conversations.sort((a, b) -> {
-                String timeA = (String) a.get("lastTimestamp");
-                String timeB = (String) b.get("lastTimestamp");
-                return timeB.compareTo(timeA);
-            });
+            List<ConversationResponse> conversations = summaries.stream()
+                .map(ConversationResponse::from)
+                .collect(Collectors.toList());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("conversations", conversations);
+            response.put("hasMore", hasMore);
+            if (hasMore) {
+                Conversation last = summaries.get(summaries.size() - 1);
+                response.put("nextCursor", new PageCursor(last.getLastTimestamp(), last.getPartnerId()).encode());
+            }
 
             logger.info("✅ Retrieved {} conversations for {}", conversations.size(), currentUser.getUsername());
 
-            return ResponseEntity.ok(conversations);
+            return ResponseEntity.ok(response);
 
         } catch (Exception e) {
             logger.error("❌ Failed to get conversations: {}", e.getMessage());
@@ -202,35 +267,60 @@ public class MessageController {
         }
     }
 
-    // Mark messages as read
+    // Mark messages as read, either all of them or up to a watermark message / timestamp
     @PostMapping("/mark-read/{username}")
-    public ResponseEntity<?> markMessagesAsRead(@PathVariable String username, Authentication authentication) {
+    public ResponseEntity<?> markMessagesAsRead(@PathVariable String username,
+                                                @RequestParam(required = false) String upToMessageId,
+                                                @RequestParam(required = false) String upToTimestamp,
+                                                Authentication authentication) {
         if (authentication == null || !authentication.isAuthenticated()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not authenticated");
         }
 
-        User currentUser = (User) authentication.getPrincipal();
+        UserPrincipal currentUser = (UserPrincipal) authentication.getPrincipal();
+
+        LocalDateTime watermark = null;
+        if (upToTimestamp != null) {
+            try {
+                watermark = LocalDateTime.parse(upToTimestamp);
+            } catch (DateTimeParseException e) {
+                return ResponseEntity.badRequest().body("Invalid upToTimestamp");
+            }
+        }
 
         try {
-            Optional<User> senderOpt = userRepository.findByUsername(username);
+            Optional<User> senderOpt = userRepository.findProfileByUsername(username);
             if (senderOpt.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
             }
 
             User sender = senderOpt.get();
 
-            // Find unread messages from this sender to current user
-            List<Message> unreadMessages = messageRepository.findByReceiverIdAndIsReadFalseOrderByTimestampDesc(
-                currentUser.getEmail());
-
-            // Filter messages from specific sender and mark as read
-            int markedCount = 0;
-            for (Message msg : unreadMessages) {
-                if (msg.getSenderId().equals(sender.getEmail())) {
-                    msg.setRead(true);
-                    messageRepository.save(msg);
-                    markedCount++;
+            if (upToMessageId != null) {
+                Optional<Message> watermarkMessage = messageRepository.findById(upToMessageId);
+                if (watermarkMessage.isEmpty()
+                        || !sender.getEmail().equals(watermarkMessage.get().getSenderId())
+                        || !currentUser.getEmail().equals(watermarkMessage.get().getReceiverId())) {
+                    return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Message not found in this conversation");
                 }
+                watermark = watermarkMessage.get().getTimestamp();
+            }
+
+            // One updateMany on (receiverId, senderId, isRead=false) instead of a save per message
+            long markedCount = messageRepository.markConversationRead(
+                currentUser.getEmail(), sender.getEmail(), watermark, upToMessageId);
+
+            // Take off only what was just marked, so messages newer than the watermark stay unread
+            // and a send recorded meanwhile keeps its increment
+            long unreadCount = conversationRepository.decrementUnreadCount(
+                currentUser.getEmail(), sender.getEmail(), markedCount);
+
+            if (markedCount > 0) {
+                Map<String, Object> receipt = new HashMap<>();
+                receipt.put("status", "read");
+                receipt.put("by", currentUser.getEmail());
+                receipt.put("upToTimestamp", watermark);
+                pushSessionRegistry.publish(new PushEvent(PushEvent.RECEIPT, sender.getEmail(), receipt));
             }
 
             logger.info("✅ Marked {} messages as read for {} from {}", 
@@ -239,6 +329,7 @@ public class MessageController {
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("markedCount", markedCount);
+            response.put("unreadCount", unreadCount);
 
             return ResponseEntity.ok(response);
 
@@ -248,32 +339,17 @@ public class MessageController {
         }
     }
 
-    // Helper method to convert Message to response format
-    private Map<String, Object> mapMessageToResponse(Message message) {
-        Map<String, Object> messageMap = new HashMap<>();
-        messageMap.put("id", message.getId());
-        messageMap.put("senderId", message.getSenderId());
-        messageMap.put("senderUsername", message.getSenderUsername());
-        messageMap.put("receiverId", message.getReceiverId());
-        messageMap.put("receiverUsername", message.getReceiverUsername());
-        messageMap.put("content", message.getContent());
-        messageMap.put("type", message.getType());
-        messageMap.put("timestamp", message.getTimestamp().toString());
-        messageMap.put("isRead", message.isRead());
-        messageMap.put("isDelivered", message.isDelivered());
-        messageMap.put("isEdited", message.isEdited());
-        messageMap.put("isDeleted", message.isDeleted());
-        
-        if (message.getImageUri() != null) {
-            messageMap.put("imageUri", message.getImageUri());
-        }
-        if (message.getAudioUri() != null) {
-            messageMap.put("audioUri", message.getAudioUri());
-        }
-        if (message.getReplyToMessageId() != null) {
-            messageMap.put("replyToMessageId", message.getReplyToMessageId());
+    // Regenerate every inbox summary from the messages collection in the background; admins only, see SecurityConfig
+    @PostMapping("/rebuild-conversations")
+    public ResponseEntity<?> rebuildConversations() {
+        if (!conversationRebuildJob.start()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("A conversation rebuild is already running");
         }
+        logger.info("✅ Conversation rebuild started");
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body("Conversation rebuild started.");
+    }
 
-        return messageMap;
+    private PageCursor toCursor(Message message) {
+        return new PageCursor(message.getTimestamp(), message.getId());
     }
 } 
\ No newline at end of file
@@ -0,0 +1,116 @@
+package com.group10.clipnest.controller;
+
+import com.group10.clipnest.model.Message;
+import com.group10.clipnest.payload.AckRequest;
+import com.group10.clipnest.push.PushEvent;
+import com.group10.clipnest.push.PushSession;
+import com.group10.clipnest.push.PushSessionRegistry;
+import com.group10.clipnest.push.SsePushSession;
+import com.group10.clipnest.repository.ConversationRepository;
+import com.group10.clipnest.repository.MessageRepository;
+import com.group10.clipnest.security.UserPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+// Push channel for messages: clients hold a server-sent events stream instead of polling
+@RestController
+@CrossOrigin(origins = "*")
+@RequestMapping("/api/messages")
+public class MessageStreamController {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageStreamController.class);
+
+    private static final String DELIVERED = "delivered";
+    private static final String READ = "read";
+
+    @Autowired
+    private PushSessionRegistry pushSessionRegistry;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private ConversationRepository conversationRepository;
+
+    @Value("${clipnest.push.session-timeout:30m}")
+    private Duration sessionTimeout;
+
+    // Open a stream of "message" and "receipt" events for the caller; clients reconnect when it ends
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> openStream(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not authenticated");
+        }
+
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+        String email = principal.getEmail();
+
+        SseEmitter emitter = new SseEmitter(sessionTimeout.toMillis());
+        PushSession session = new SsePushSession(emitter);
+        emitter.onCompletion(() -> pushSessionRegistry.unregister(email, session));
+        emitter.onTimeout(() -> pushSessionRegistry.unregister(email, session));
+        emitter.onError(e -> pushSessionRegistry.unregister(email, session));
+        pushSessionRegistry.register(email, session);
+
+        logger.info("✅ Push stream opened for {}", principal.getUsername());
+        return ResponseEntity.ok(emitter);
+    }
+
+    // Acknowledge pushed messages as delivered or read; the senders get a receipt event
+    @PostMapping("/ack")
+    public ResponseEntity<?> acknowledge(@RequestBody AckRequest request, Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not authenticated");
+        }
+
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+
+        if (request.getMessageIds() == null || request.getMessageIds().isEmpty()
+                || !(DELIVERED.equals(request.getStatus()) || READ.equals(request.getStatus()))) {
+            return ResponseEntity.badRequest().body("messageIds and a status of \"delivered\" or \"read\" are required");
+        }
+
+        try {
+            boolean read = READ.equals(request.getStatus());
+            List<Message> acknowledged = messageRepository.acknowledge(principal.getEmail(), request.getMessageIds());
+
+            // One receipt per sender, listing only that sender's messages
+            Map<String, List<String>> idsBySender = acknowledged.stream()
+                .collect(Collectors.groupingBy(Message::getSenderId,
+                    Collectors.mapping(Message::getId, Collectors.toList())));
+            idsBySender.forEach((senderId, messageIds) -> {
+                if (read) {
+                    long markedCount = messageRepository.markRead(principal.getEmail(), senderId, messageIds);
+                    conversationRepository.decrementUnreadCount(principal.getEmail(), senderId, markedCount);
+                }
+                Map<String, Object> receipt = new HashMap<>();
+                receipt.put("status", request.getStatus());
+                receipt.put("by", principal.getEmail());
+                receipt.put("messageIds", messageIds);
+                pushSessionRegistry.publish(new PushEvent(PushEvent.RECEIPT, senderId, receipt));
+            });
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("acknowledged", acknowledged.size());
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("❌ Failed to acknowledge messages for {}: {}", principal.getUsername(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to acknowledge messages");
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.group10.clipnest.controller;
+
+import com.group10.clipnest.job.ConversationIdBackfillJob;
+import com.group10.clipnest.messaging.MessageWriteBuffer;
+import com.group10.clipnest.model.Message;
+import com.group10.clipnest.payload.ConversationResponse;
+import com.group10.clipnest.payload.MessageResponse;
+import com.group10.clipnest.payload.PageCursor;
+import com.group10.clipnest.push.PushEvent;
+import com.group10.clipnest.push.PushSessionRegistry;
+import com.group10.clipnest.repository.ReactiveConversationRepository;
+import com.group10.clipnest.repository.ReactiveMessageRepository;
+import com.group10.clipnest.repository.ReactiveUserRepository;
+import com.group10.clipnest.security.UserPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Non-blocking variant of the messages API on reactive Mongo repositories, served next to
+ * MessageController under /api/rx/messages when clipnest.messages.reactive.enabled is set.
+ * History and inbox come back as NDJSON streams written as documents arrive from the cursor,
+ * with Mongo reads paced by how fast the client takes them, so long threads can be fetched
+ * in one request without being buffered in memory.
+ *
+ * Streams commit their response before the first document, so an unknown username yields an
+ * empty stream rather than a 404.
+ */
+@RestController
+@CrossOrigin(origins = "*")
+@RequestMapping("/api/rx/messages")
+@ConditionalOnProperty(name = "clipnest.messages.reactive.enabled", havingValue = "true")
+public class ReactiveMessageController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveMessageController.class);
+
+    @Autowired
+    private ReactiveMessageRepository reactiveMessageRepository;
+
+    @Autowired
+    private ReactiveUserRepository reactiveUserRepository;
+
+    @Autowired
+    private ReactiveConversationRepository reactiveConversationRepository;
+
+    @Autowired
+    private MessageWriteBuffer messageWriteBuffer;
+
+    @Autowired
+    private ConversationIdBackfillJob conversationIdBackfillJob;
+
+    @Autowired
+    private PushSessionRegistry pushSessionRegistry;
+
+    @Value("${clipnest.messages.page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${clipnest.messages.inbox-size:20}")
+    private int defaultInboxSize;
+
+    @Value("${clipnest.messages.reactive.max-stream-size:5000}")
+    private int maxStreamSize;
+
+    // Send a message; the receiver lookup is non-blocking and the write goes through the batched writer
+    @PostMapping("/send")
+    public Mono<ResponseEntity<?>> sendMessage(@RequestBody Map<String, String> request, Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not authenticated"));
+        }
+
+        UserPrincipal sender = (UserPrincipal) authentication.getPrincipal();
+        String receiverUsername = request.get("receiverUsername");
+        String content = request.get("content");
+
+        if (receiverUsername == null || content == null) {
+            return Mono.just(ResponseEntity.badRequest().body("Receiver username and content are required"));
+        }
+
+        return reactiveUserRepository.findProfileByUsername(receiverUsername)
+            .<ResponseEntity<?>>map(receiver -> {
+                Message message = new Message();
+                message.setSenderId(sender.getEmail());
+                message.setSenderUsername(sender.getUsername());
+                message.setReceiverId(receiver.getEmail());
+                message.setReceiverUsername(receiver.getUsername());
+                message.setContent(content);
+                message.setType(request.getOrDefault("type", "text"));
+                message.setImageUri(request.get("imageUri"));
+                message.setAudioUri(request.get("audioUri"));
+                message.setReplyToMessageId(request.get("replyToMessageId"));
+
+                if (!messageWriteBuffer.offer(message)) {
+                    if (messageWriteBuffer.isStopped()) {
+                        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Shutting down, try again shortly");
+                    }
+                    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body("Too many messages, try again shortly");
+                }
+
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("message", MessageResponse.from(message));
+                return ResponseEntity.ok(response);
+            })
+            .defaultIfEmpty(ResponseEntity.status(HttpStatus.NOT_FOUND).body("Receiver not found"))
+            .onErrorResume(e -> {
+                logger.error("❌ Failed to send message: {}", e.getMessage());
+                return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to send message"));
+            });
+    }
+
+    // Stream a conversation: newest first from before (or the latest message), oldest first after an after cursor
+    @GetMapping(value = "/conversation/{username}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<MessageResponse>> streamConversation(@PathVariable String username,
+                                                                    @RequestParam(required = false) String before,
+                                                                    @RequestParam(required = false) String after,
+                                                                    @RequestParam(required = false) Integer limit,
+                                                                    Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        UserPrincipal currentUser = (UserPrincipal) authentication.getPrincipal();
+
+        if (before != null && after != null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        PageCursor beforeCursor;
+        PageCursor afterCursor;
+        try {
+            beforeCursor = before != null ? PageCursor.decode(before) : null;
+            afterCursor = after != null ? PageCursor.decode(after) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        int streamSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxStreamSize));
+
+        Flux<MessageResponse> messages = reactiveUserRepository.findProfileByUsername(username)
+            .flatMapMany(otherUser -> reactiveMessageRepository.streamConversation(
+                currentUser.getEmail(), otherUser.getEmail(), beforeCursor, afterCursor, streamSize,
+                conversationIdBackfillJob.isComplete()))
+            .map(MessageResponse::from)
+            .doOnError(e -> logger.error("❌ Failed to stream conversation with {}: {}", username, e.getMessage()));
+
+        return ResponseEntity.ok(messages);
+    }
+
+    // Stream the inbox, most recent conversation first
+    @GetMapping(value = "/conversations", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<ConversationResponse>> streamConversations(@RequestParam(required = false) String cursor,
+                                                                          @RequestParam(required = false) Integer limit,
+                                                                          Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        UserPrincipal currentUser = (UserPrincipal) authentication.getPrincipal();
+
+        PageCursor pageCursor;
+        try {
+            pageCursor = cursor != null ? PageCursor.decode(cursor) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        int streamSize = limit == null ? defaultInboxSize : Math.max(1, Math.min(limit, maxStreamSize));
+
+        Flux<ConversationResponse> conversations = reactiveConversationRepository
+            .findInboxPage(currentUser.getEmail(), pageCursor, streamSize)
+            .map(ConversationResponse::from)
+            .doOnError(e -> logger.error("❌ Failed to stream conversations for {}: {}", currentUser.getUsername(), e.getMessage()));
+
+        return ResponseEntity.ok(conversations);
+    }
+
+    // Mark every message from username as read
+    @PostMapping("/mark-read/{username}")
+    public Mono<ResponseEntity<?>> markMessagesAsRead(@PathVariable String username, Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not authenticated"));
+        }
+
+        UserPrincipal currentUser = (UserPrincipal) authentication.getPrincipal();
+
+        return reactiveUserRepository.findProfileByUsername(username)
+            .flatMap(sender -> reactiveMessageRepository
+                .markConversationRead(currentUser.getEmail(), sender.getEmail(), null, null)
+                .doOnNext(markedCount -> {
+                    if (markedCount > 0) {
+                        Map<String, Object> receipt = new HashMap<>();
+                        receipt.put("status", "read");
+                        receipt.put("by", currentUser.getEmail());
+                        pushSessionRegistry.publish(new PushEvent(PushEvent.RECEIPT, sender.getEmail(), receipt));
+                    }
+                })
+                .flatMap(markedCount -> reactiveConversationRepository
+                    .decrementUnreadCount(currentUser.getEmail(), sender.getEmail(), markedCount)
+                    .<ResponseEntity<?>>map(unreadCount -> {
+                        Map<String, Object> response = new HashMap<>();
+                        response.put("success", true);
+                        response.put("markedCount", markedCount);
+                        response.put("unreadCount", unreadCount);
+                        return ResponseEntity.ok(response);
+                    })))
+            .defaultIfEmpty(ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found"))
+            .onErrorResume(e -> {
+                logger.error("❌ Failed to mark messages as read: {}", e.getMessage());
+                return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to mark messages as read"));
+            });
+    }
+}
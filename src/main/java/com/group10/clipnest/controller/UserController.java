@@ -1,17 +1,32 @@
 package com.group10.clipnest.controller;
 
 import com.group10.clipnest.model.User;
+import com.group10.clipnest.payload.MentionResponse;
+import com.group10.clipnest.payload.UserResponse;
 import com.group10.clipnest.repository.UserRepository;
+import com.group10.clipnest.search.MentionTypeahead;
+import com.group10.clipnest.search.SearchableUser;
+import com.group10.clipnest.search.UserSearchIndex;
+import com.group10.clipnest.security.UserPrincipal;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RestController
 @CrossOrigin(origins = "*")
@@ -23,21 +38,56 @@ public class UserController {
     @Autowired
     private UserRepository userRepository;
 
-    // Get all users
+    @Autowired
+    private UserSearchIndex userSearchIndex;
+
+    @Autowired
+    private MentionTypeahead mentionTypeahead;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${clipnest.users.page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${clipnest.users.max-page-size:200}")
+    private int maxPageSize;
+
+    @Value("${clipnest.users.stream-flush-every:500}")
+    private int streamFlushEvery;
+
+    // Get all users, one keyset page at a time in _id order
     @GetMapping("")
-    public ResponseEntity<?> getAllUsers(Authentication authentication) {
+    public ResponseEntity<?> getAllUsers(@RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) Integer limit,
+                                         Authentication authentication) {
         if (authentication == null || !authentication.isAuthenticated()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not authenticated");
         }
+        if (cursor != null && !ObjectId.isValid(cursor)) {
+            return ResponseEntity.badRequest().body("Invalid cursor");
+        }
 
         try {
-            List<User> users = userRepository.findAll();
-            List<Map<String, Object>> userList = users.stream()
-                .map(this::mapUserToResponse)
+            int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+            // One extra row tells whether another page exists
+            List<User> users = cursor == null
+                ? userRepository.findProfilesPage(Limit.of(pageSize + 1))
+                : userRepository.findProfilesPageAfter(new ObjectId(cursor), Limit.of(pageSize + 1));
+
+            boolean hasMore = users.size() > pageSize;
+            List<User> page = hasMore ? users.subList(0, pageSize) : users;
+            List<UserResponse> userList = page.stream()
+                .map(UserResponse::from)
                 .collect(Collectors.toList());
 
+            Map<String, Object> response = new HashMap<>();
+            response.put("users", userList);
+            response.put("hasMore", hasMore);
+            response.put("nextCursor", hasMore ? page.get(page.size() - 1).getId() : null);
+
             logger.info("✅ Fetched {} users", userList.size());
-            return ResponseEntity.ok(userList);
+            return ResponseEntity.ok(response);
 
         } catch (Exception e) {
             logger.error("❌ Failed to fetch users: {}", e.getMessage());
@@ -45,6 +95,39 @@ public class UserController {
         }
     }
 
+    // Get all users as newline-delimited JSON, written row by row while the database cursor is read,
+    // so memory use does not grow with the number of users
+    @GetMapping(value = "", params = "format=ndjson")
+    public ResponseEntity<?> streamAllUsers(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not authenticated");
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            long written = 0;
+            try (Stream<User> users = userRepository.streamProfiles();
+                 SequenceWriter rows = objectMapper.writer()
+                     .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                     .withRootValueSeparator("\n")
+                     .writeValues(outputStream)) {
+                Iterator<User> iterator = users.iterator();
+                while (iterator.hasNext()) {
+                    rows.write(UserResponse.from(iterator.next()));
+                    if (++written % streamFlushEvery == 0) {
+                        rows.flush();
+                    }
+                }
+            } catch (Exception e) {
+                logger.error("❌ User stream aborted after {} users: {}", written, e.getMessage());
+                throw e;
+            }
+            logger.info("✅ Streamed {} users", written);
+        };
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/x-ndjson"))
+            .body(body);
+    }
+
     // Search users by username or name
     @GetMapping("/search")
     public ResponseEntity<?> searchUsers(@RequestParam String q, Authentication authentication) {
@@ -53,35 +136,8 @@ public class UserController {
         }
 
         try {
-            List<User> users = userRepository.findByUsernameContainingIgnoreCase(q);
-            
-            // Also search by full name if available
-            List<User> nameResults = userRepository.findAll().stream()
-                .filter(user -> user.getFullName() != null && 
-                               user.getFullName().toLowerCase().contains(q.toLowerCase()))
-                .collect(Collectors.toList());
-
-            // Combine and deduplicate results
-            Set<String> seenEmails = new HashSet<>();
-            List<User> combinedResults = new ArrayList<>();
-            
-            for (User user : users) {
-                if (!seenEmails.contains(user.getEmail())) {
-                    combinedResults.add(user);
-                    seenEmails.add(user.getEmail());
-                }
-            }
-            
-            for (User user : nameResults) {
-                if (!seenEmails.contains(user.getEmail())) {
-                    combinedResults.add(user);
-                    seenEmails.add(user.getEmail());
-                }
-            }
-
-            List<Map<String, Object>> userList = combinedResults.stream()
-                .limit(20) // Limit search results
-                .map(this::mapUserToResponse)
+            List<UserResponse> userList = findSearchMatches(q, 20, null).stream()
+                .map(UserResponse::from)
                 .collect(Collectors.toList());
 
             logger.info("✅ Search for '{}' returned {} users", q, userList.size());
@@ -101,13 +157,12 @@ public class UserController {
         }
 
         try {
-            Optional<User> userOpt = userRepository.findByUsername(username);
+            Optional<User> userOpt = userRepository.findProfileByUsername(username);
             if (userOpt.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
             }
 
-            User user = userOpt.get();
-            Map<String, Object> userResponse = mapUserToResponse(user);
+            UserResponse userResponse = UserResponse.from(userOpt.get());
 
             logger.info("✅ Fetched user: {}", username);
             return ResponseEntity.ok(userResponse);
@@ -118,56 +173,18 @@ public class UserController {
         }
     }
 
-    // Get users for mentions (with follow status)
+    // Get users for mentions (with follow status): people the caller follows or is followed by come first
     @GetMapping("/mentions")
     public ResponseEntity<?> getUsersForMentions(@RequestParam String q, Authentication authentication) {
         if (authentication == null || !authentication.isAuthenticated()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not authenticated");
         }
 
-        User currentUser = (User) authentication.getPrincipal();
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
 
         try {
-            List<User> users = userRepository.findByUsernameContainingIgnoreCase(q);
-            
-            // Also search by full name
-            List<User> nameResults = userRepository.findAll().stream()
-                .filter(user -> user.getFullName() != null && 
-                               user.getFullName().toLowerCase().contains(q.toLowerCase()))
-                .collect(Collectors.toList());
-
-            // Combine and deduplicate results
-            Set<String> seenEmails = new HashSet<>();
-            List<User> combinedResults = new ArrayList<>();
-            
-            for (User user : users) {
-                if (!seenEmails.contains(user.getEmail())) {
-                    combinedResults.add(user);
-                    seenEmails.add(user.getEmail());
-                }
-            }
-            
-            for (User user : nameResults) {
-                if (!seenEmails.contains(user.getEmail())) {
-                    combinedResults.add(user);
-                    seenEmails.add(user.getEmail());
-                }
-            }
-
-            Set<String> currentUserFollowing = currentUser.getFollowing() != null ? 
-                currentUser.getFollowing() : new HashSet<>();
-            Set<String> currentUserFollowers = currentUser.getFollowers() != null ? 
-                currentUser.getFollowers() : new HashSet<>();
-
-            List<Map<String, Object>> userList = combinedResults.stream()
-                .filter(user -> !user.getEmail().equals(currentUser.getEmail())) // Exclude self
-                .limit(10) // Limit mention results
-                .map(user -> {
-                    Map<String, Object> userMap = mapUserToResponse(user);
-                    userMap.put("isFollowing", currentUserFollowing.contains(user.getEmail()));
-                    userMap.put("isFollower", currentUserFollowers.contains(user.getEmail()));
-                    return userMap;
-                })
+            List<MentionResponse> userList = mentionTypeahead.suggest(principal.getEmail(), q, 10).stream()
+                .map(match -> MentionResponse.from(match.getUser(), match.isFollowing(), match.isFollower()))
                 .collect(Collectors.toList());
 
             logger.info("✅ Mention search for '{}' returned {} users", q, userList.size());
@@ -179,17 +196,42 @@ public class UserController {
         }
     }
 
-    // Helper method to map User entity to response format
-    private Map<String, Object> mapUserToResponse(User user) {
-        Map<String, Object> userMap = new HashMap<>();
-        userMap.put("id", user.getId());
-        userMap.put("email", user.getEmail());
-        userMap.put("username", user.getUsername());
-        userMap.put("fullName", user.getFullName());
-        userMap.put("followersCount", user.getFollowers() != null ? user.getFollowers().size() : 0);
-        userMap.put("followingCount", user.getFollowing() != null ? user.getFollowing().size() : 0);
-        // Add avatar field when implemented
-        userMap.put("avatar", null);
-        return userMap;
+    // ^ plus the query with every non-alphanumeric escaped, which Mongo turns into tight index bounds
+    private static String prefixPattern(String q) {
+        StringBuilder pattern = new StringBuilder(q.length() * 2 + 1).append('^');
+        for (char c : q.toCharArray()) {
+            if (!Character.isLetterOrDigit(c)) {
+                pattern.append('\\');
+            }
+            pattern.append(c);
+        }
+        return pattern.toString();
+    }
+
+    // Top matches from the in-memory index, hydrated with fresh profile fields in one batched lookup.
+    // Until the index has finished loading, fall back to a username prefix query against Mongo.
+    private List<User> findSearchMatches(String q, int limit, String excludeEmail) {
+        if (!userSearchIndex.isLoaded()) {
+            // One extra row in case the caller is among the matches
+            return userRepository.findProfilesByUsernameRegex(prefixPattern(q), Limit.of(limit + 1)).stream()
+                .filter(user -> !user.getEmail().equals(excludeEmail))
+                .limit(limit)
+                .collect(Collectors.toList());
+        }
+
+        List<String> rankedEmails = userSearchIndex.search(q, limit,
+                user -> !user.getEmail().equals(excludeEmail)).stream()
+            .map(SearchableUser::getEmail)
+            .collect(Collectors.toList());
+        if (rankedEmails.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<String, User> byEmail = userRepository.findProfilesByEmailIn(rankedEmails).stream()
+            .collect(Collectors.toMap(User::getEmail, user -> user, (a, b) -> a));
+        return rankedEmails.stream()
+            .map(byEmail::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
     }
 } 
\ No newline at end of file
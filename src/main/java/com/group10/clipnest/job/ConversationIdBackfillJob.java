@@ -0,0 +1,72 @@
+package com.group10.clipnest.job;
+
+import com.group10.clipnest.repository.MessageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Conversation history is read by conversationId, which messages written before it existed do
+ * not have. This checks for such messages at startup and then every interval, fills them in with
+ * bulk batches, and only reports complete once a check finds none. Until then history reads stay
+ * on the sender/receiver query, so no message drops out of a thread. Checking keeps going after
+ * that, to pick up messages written by instances on the previous version during a rolling
+ * deploy; a clean check reads the (empty) partial index of direct messages without one, so it
+ * costs next to nothing.
+ */
+@Component
+public class ConversationIdBackfillJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversationIdBackfillJob.class);
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Value("${clipnest.messages.conversation-id-backfill:true}")
+    private boolean enabled;
+
+    @Value("${clipnest.messages.conversation-id-backfill-batch-size:1000}")
+    private int batchSize;
+
+    private volatile boolean complete;
+
+    // Whether every direct message had a conversationId at the last check
+    public boolean isComplete() {
+        return complete;
+    }
+
+    // Backfill what is missing, then let reads use conversationId only if nothing is left
+    @Scheduled(fixedDelayString = "${clipnest.messages.conversation-id-backfill-interval-ms:60000}")
+    public void check() {
+        try {
+            boolean missing = messageRepository.hasMissingConversationIds();
+            if (missing && enabled) {
+                run();
+                missing = messageRepository.hasMissingConversationIds();
+            }
+            if (complete == missing) {
+                logger.info(missing
+                        ? "❌ Messages without a conversationId found, history reads use sender/receiver"
+                        : "✅ Every message has a conversationId, history reads use conversationId");
+            }
+            complete = !missing;
+        } catch (Exception e) {
+            logger.warn("❌ conversationId check failed, retrying on the next one: {}", e.getMessage());
+        }
+    }
+
+    public long run() {
+        long started = System.currentTimeMillis();
+        try {
+            long updated = messageRepository.backfillConversationIds(batchSize);
+            logger.info("✅ Backfilled conversationId on {} messages in {} ms", updated, System.currentTimeMillis() - started);
+            return updated;
+        } catch (Exception e) {
+            logger.warn("❌ conversationId backfill failed, it resumes on the next check: {}", e.getMessage());
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.group10.clipnest.job;
+
+import com.group10.clipnest.model.User;
+import com.group10.clipnest.payload.ConversationSummary;
+import com.group10.clipnest.repository.ConversationRepository;
+import com.group10.clipnest.repository.MessageRepository;
+import com.group10.clipnest.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Regenerates every inbox row from the messages collection, for after an outage of the
+ * conversations collection or a change to what a row holds. Runs one aggregation per user and
+ * writes its summaries as they stream off the cursor, in bulk batches, on a background thread so
+ * the request that starts it returns straight away. Only one rebuild runs at a time.
+ */
+@Component
+public class ConversationRebuildJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversationRebuildJob.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private ConversationRepository conversationRepository;
+
+    @Value("${clipnest.messages.rebuild-batch-size:500}")
+    private int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "conversation-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // False when a rebuild is already running
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        executor.execute(() -> {
+            try {
+                run();
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run() {
+        long started = System.currentTimeMillis();
+        long rebuilt = 0;
+        try (Stream<User> users = userRepository.streamAllEmails()) {
+            Iterator<User> iterator = users.iterator();
+            while (iterator.hasNext() && !Thread.currentThread().isInterrupted()) {
+                rebuilt += rebuild(iterator.next().getEmail());
+            }
+            logger.info("✅ Rebuilt {} conversation summaries in {} ms", rebuilt, System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            logger.error("❌ Conversation rebuild failed after {} summaries: {}", rebuilt, e.getMessage());
+        }
+    }
+
+    private long rebuild(String email) {
+        long rebuilt = 0;
+        List<ConversationSummary> batch = new ArrayList<>(batchSize);
+        try (Stream<ConversationSummary> summaries = messageRepository.streamConversationSummaries(email)) {
+            Iterator<ConversationSummary> iterator = summaries.iterator();
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == batchSize) {
+                    rebuilt += conversationRepository.upsertSummaries(email, batch);
+                    batch.clear();
+                }
+            }
+        }
+        return rebuilt + conversationRepository.upsertSummaries(email, batch);
+    }
+}
@@ -0,0 +1,32 @@
+package com.group10.clipnest.job;
+
+import com.group10.clipnest.repository.FollowRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counters are updated with $inc next to each edge write, without a transaction, so a crash
+ * in between leaves them off by one. This periodically recounts from the follows collection.
+ */
+@Component
+public class FollowCounterConsistencyJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(FollowCounterConsistencyJob.class);
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Scheduled(cron = "${clipnest.follows.counter-check-cron:0 30 3 * * *}")
+    public long run() {
+        long started = System.currentTimeMillis();
+        long repaired = followRepository.repairFollowCounters();
+        if (repaired > 0) {
+            logger.warn("❌ Repaired drifted follow counters on {} users", repaired);
+        }
+        logger.info("✅ Follow counter check finished in {} ms", System.currentTimeMillis() - started);
+        return repaired;
+    }
+}
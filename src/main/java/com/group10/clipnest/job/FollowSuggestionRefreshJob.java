@@ -0,0 +1,29 @@
+package com.group10.clipnest.job;
+
+import com.group10.clipnest.suggestion.FollowSuggestionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recomputes cached follow suggestions so active users keep reading a fresh, warm cache. The
+ * rewrite does not extend an entry's life, so users who stop asking still expire out of it.
+ */
+@Component
+public class FollowSuggestionRefreshJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(FollowSuggestionRefreshJob.class);
+
+    @Autowired
+    private FollowSuggestionService followSuggestionService;
+
+    @Scheduled(cron = "${clipnest.suggestions.refresh-cron:0 */10 * * * *}")
+    public int run() {
+        long started = System.currentTimeMillis();
+        int refreshed = followSuggestionService.refreshCached();
+        logger.info("✅ Refreshed follow suggestions for {} users in {} ms", refreshed, System.currentTimeMillis() - started);
+        return refreshed;
+    }
+}
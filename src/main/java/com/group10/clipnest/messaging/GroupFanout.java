@@ -0,0 +1,123 @@
+package com.group10.clipnest.messaging;
+
+import com.group10.clipnest.model.GroupMember;
+import com.group10.clipnest.model.Message;
+import com.group10.clipnest.payload.MessageResponse;
+import com.group10.clipnest.push.PushBroker;
+import com.group10.clipnest.push.PushEvent;
+import com.group10.clipnest.push.PushSessionRegistry;
+import com.group10.clipnest.repository.GroupMemberRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
+
+/**
+ * Pushes group messages to the members' open streams. A message goes out as one broker event
+ * addressed to the group, and each node works out which of its own connected users are
+ * members: with up to lookup-size of them it asks group_members about just those, past that it
+ * scans the group's members and keeps the connected ones. Either way a node reads at most the
+ * smaller side, and a node with nobody connected reads nothing. Lookups run off the broker
+ * thread so a big group does not hold up other deliveries.
+ */
+@Component
+public class GroupFanout {
+
+    private static final Logger logger = LoggerFactory.getLogger(GroupFanout.class);
+
+    private final GroupMemberRepository groupMemberRepository;
+    private final PushSessionRegistry pushSessionRegistry;
+    private final int lookupSize;
+    private final ExecutorService executor;
+
+    public GroupFanout(GroupMemberRepository groupMemberRepository,
+                       PushBroker pushBroker,
+                       PushSessionRegistry pushSessionRegistry,
+                       @Value("${clipnest.groups.fanout-lookup-size:1000}") int lookupSize,
+                       @Value("${clipnest.groups.fanout-threads:2}") int threads) {
+        this.groupMemberRepository = groupMemberRepository;
+        this.pushSessionRegistry = pushSessionRegistry;
+        this.lookupSize = lookupSize;
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "group-fanout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        pushBroker.subscribe(this::onPushEvent);
+    }
+
+    public void publish(Message message) {
+        pushSessionRegistry.publish(PushEvent.toGroup(PushEvent.GROUP_MESSAGE, message.getGroupId(),
+                message.getSenderId(), MessageResponse.from(message)));
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void onPushEvent(PushEvent event) {
+        if (event.group() == null || pushSessionRegistry.localUsers().isEmpty()) {
+            return;
+        }
+        try {
+            executor.execute(() -> deliverLocally(event));
+        } catch (RejectedExecutionException e) {
+            logger.warn("❌ Group fan-out is shut down, message to group {} not pushed", event.group().groupId());
+        }
+    }
+
+    // Hands the event to the sessions of this node's connected group members, returns how many got it
+    int deliverLocally(PushEvent event) {
+        PushEvent.GroupAudience group = event.group();
+        try {
+            List<String> connected = new ArrayList<>(lookupSize);
+            for (String user : pushSessionRegistry.localUsers()) {
+                if (connected.size() > lookupSize) {
+                    break;
+                }
+                if (!user.equals(group.exceptMemberId())) {
+                    connected.add(user);
+                }
+            }
+            if (connected.isEmpty()) {
+                return 0;
+            }
+            List<String> recipients = connected.size() <= lookupSize
+                    ? groupMemberRepository.findMemberIds(group.groupId(), connected)
+                    : connectedMembers(group);
+            if (recipients.isEmpty()) {
+                return 0;
+            }
+            return pushSessionRegistry.deliverLocally(new PushEvent(event.type(), recipients, event.payload()));
+        } catch (Exception e) {
+            logger.warn("❌ Failed to push a message to group {}: {}", group.groupId(), e.getMessage());
+            return 0;
+        }
+    }
+
+    // Too many users connected here to name them in one lookup: scan the group's members instead
+    private List<String> connectedMembers(PushEvent.GroupAudience group) {
+        List<String> recipients = new ArrayList<>();
+        try (Stream<GroupMember> members = groupMemberRepository.streamMemberIds(group.groupId())) {
+            Iterator<GroupMember> iterator = members.iterator();
+            while (iterator.hasNext()) {
+                String memberId = iterator.next().getMemberId();
+                if (!memberId.equals(group.exceptMemberId()) && pushSessionRegistry.isLocal(memberId)) {
+                    recipients.add(memberId);
+                }
+            }
+        }
+        return recipients;
+    }
+}
@@ -0,0 +1,376 @@
+package com.group10.clipnest.messaging;
+
+import com.group10.clipnest.model.Message;
+import com.group10.clipnest.payload.MessageResponse;
+import com.group10.clipnest.push.PushEvent;
+import com.group10.clipnest.push.PushSessionRegistry;
+import com.group10.clipnest.repository.ConversationRepository;
+import com.group10.clipnest.repository.GroupRepository;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind pipeline for direct and group messages. Senders stamp the message with an id and
+ * timestamp and queue it; one flusher thread inserts queued messages with a single unordered bulk
+ * insert once a batch fills up or the oldest one has waited max-latency, then updates the
+ * conversation summaries and group previews and pushes to the receivers. A full queue rejects the
+ * message so the caller can answer 429 instead of piling up requests.
+ *
+ * The sender has already been told the message was accepted, so a failed insert is retried with
+ * backoff, only for the documents that failed, up to write-max-attempts. Ids are fixed before
+ * the first attempt, so a duplicate key on retry means an earlier attempt landed. Messages that
+ * still fail are counted, logged with their ids and reported to the sender as messageFailed.
+ *
+ * Pushes are handed to a small push pool, like group fan-out, so a receiver with a slow stream
+ * holds up other pushes at worst, never the inserts behind it.
+ *
+ * Runs as a lifecycle bean in a phase that stops after the web server, so with graceful shutdown
+ * the requests still in flight are queued first. Stopping refuses new messages (callers answer
+ * 503) and the flusher writes out what is queued before it exits.
+ */
+@Component
+public class MessageWriteBuffer implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageWriteBuffer.class);
+
+    private static final long IDLE_POLL_MS = 500;
+    private static final int DUPLICATE_KEY = 11000;
+
+    // The web server stops at DEFAULT_PHASE - 2048 (its graceful shutdown at - 1024); stop after it
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final MongoTemplate mongoTemplate;
+    private final ConversationRepository conversationRepository;
+    private final PushSessionRegistry pushSessionRegistry;
+    private final GroupRepository groupRepository;
+    private final GroupFanout groupFanout;
+
+    private final BlockingQueue<Message> queue;
+    private final int batchSize;
+    private final long maxLatencyMs;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final ExecutorService pushExecutor;
+
+    private final Timer flushLatency;
+    private final Counter rejected;
+    private final Counter failed;
+    private final Counter retried;
+
+    private final long stopTimeoutMs;
+
+    private volatile boolean running;
+    // Set once stop() begins; offer() refuses from then on
+    private volatile boolean stopped;
+    private Thread flusher;
+
+    public MessageWriteBuffer(MongoTemplate mongoTemplate,
+                              ConversationRepository conversationRepository,
+                              PushSessionRegistry pushSessionRegistry,
+                              GroupRepository groupRepository,
+                              GroupFanout groupFanout,
+                              MeterRegistry meterRegistry,
+                              @Value("${clipnest.messages.write-queue-capacity:10000}") int capacity,
+                              @Value("${clipnest.messages.write-batch-size:500}") int batchSize,
+                              @Value("${clipnest.messages.write-max-latency-ms:20}") long maxLatencyMs,
+                              @Value("${clipnest.messages.write-max-attempts:5}") int maxAttempts,
+                              @Value("${clipnest.messages.write-retry-backoff-ms:100}") long retryBackoffMs,
+                              @Value("${clipnest.messages.push-threads:2}") int pushThreads,
+                              @Value("${clipnest.messages.write-stop-timeout-ms:10000}") long stopTimeoutMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.conversationRepository = conversationRepository;
+        this.pushSessionRegistry = pushSessionRegistry;
+        this.groupRepository = groupRepository;
+        this.groupFanout = groupFanout;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.maxLatencyMs = maxLatencyMs;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoffMs = retryBackoffMs;
+        this.stopTimeoutMs = stopTimeoutMs;
+        this.pushExecutor = Executors.newFixedThreadPool(pushThreads, runnable -> {
+            Thread thread = new Thread(runnable, "message-push");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("clipnest.messages.write.queue", queue, BlockingQueue::size)
+                .description("Messages accepted but not yet written")
+                .register(meterRegistry);
+        this.flushLatency = Timer.builder("clipnest.messages.write.flush")
+                .description("Latency of one batched message insert, including summaries and push")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejected = Counter.builder("clipnest.messages.write.rejected")
+                .description("Messages turned away because the write queue was full")
+                .register(meterRegistry);
+        this.failed = Counter.builder("clipnest.messages.write.failed")
+                .description("Accepted messages that could not be written after every attempt")
+                .register(meterRegistry);
+        this.retried = Counter.builder("clipnest.messages.write.retried")
+                .description("Message inserts retried after a failed attempt")
+                .register(meterRegistry);
+    }
+
+    // Stamps the message and queues it; false when the queue is full or the buffer has stopped
+    public boolean offer(Message message) {
+        if (stopped) {
+            return false;
+        }
+        message.setId(new ObjectId().toHexString());
+        message.setTimestamp(LocalDateTime.now());
+        if (!message.isGroupMessage()) {
+            message.setConversationId(Message.conversationIdOf(message.getSenderId(), message.getReceiverId()));
+        }
+        if (!queue.offer(message)) {
+            rejected.increment();
+            return false;
+        }
+        // The flusher may have finished its final drain since the check above: take the message
+        // back unless it already got it, so nothing is left behind unwritten
+        if (stopped && queue.remove(message)) {
+            return false;
+        }
+        return true;
+    }
+
+    // True once shutdown has begun; offer() then refuses every message
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    public int depth() {
+        return queue.size();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        stopped = false;
+        running = true;
+        flusher = new Thread(this::run, "message-write-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    // Refuse new messages and wait for the flusher to write out whatever is still queued
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        stopped = true;
+        running = false;
+        try {
+            flusher.join(stopTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (flusher.isAlive()) {
+            // Still writing; draining here as well could write the same batch twice
+            logger.error("❌ Message writer still busy after {} ms, {} queued messages may be lost",
+                    stopTimeoutMs, queue.size());
+        }
+        pushExecutor.shutdown();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void run() {
+        List<Message> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                // Wake up now and then to notice stop(); interrupting a write could abort it halfway
+                Message first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxLatencyMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long wait = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || wait <= 0) {
+                        break;
+                    }
+                    Message next = queue.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        // Stopped: offer() refuses now, so this drains everything that was accepted
+        while (queue.drainTo(batch, batchSize) > 0) {
+            flush(batch);
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    void flush(List<Message> batch) {
+        flushLatency.record(() -> {
+            List<Message> lost = write(batch);
+            if (lost.size() == batch.size()) {
+                return;
+            }
+            List<Message> written = lost.isEmpty() ? batch : batch.stream().filter(message -> !lost.contains(message)).toList();
+
+            List<Message> direct = new ArrayList<>(written.size());
+            List<Message> group = new ArrayList<>();
+            for (Message message : written) {
+                (message.isGroupMessage() ? group : direct).add(message);
+            }
+
+            // Keep both inbox rows current; a rebuild repairs them if this fails
+            try {
+                conversationRepository.recordMessages(direct);
+            } catch (Exception e) {
+                logger.warn("❌ Failed to update conversation summaries for {} messages: {}", direct.size(), e.getMessage());
+            }
+            try {
+                groupRepository.recordMessages(group);
+            } catch (Exception e) {
+                logger.warn("❌ Failed to update group previews for {} messages: {}", group.size(), e.getMessage());
+            }
+
+            // Push to the receivers' open streams; polling clients still see them on their next fetch
+            push(direct.stream()
+                    .map(message -> new PushEvent(PushEvent.MESSAGE, message.getReceiverId(), MessageResponse.from(message)))
+                    .toList());
+            group.forEach(groupFanout::publish);
+        });
+    }
+
+    // Inserts the batch, retrying failed documents with exponential backoff; returns what was lost
+    private List<Message> write(List<Message> batch) {
+        List<Message> pending = batch;
+        for (int attempt = 1; ; attempt++) {
+            pending = insert(pending);
+            if (pending.isEmpty()) {
+                return pending;
+            }
+            if (attempt >= maxAttempts) {
+                giveUp(pending);
+                return pending;
+            }
+            retried.increment(pending.size());
+            logger.warn("❌ Insert attempt {} failed for {} messages, retrying", attempt, pending.size());
+            try {
+                Thread.sleep(retryBackoffMs << (attempt - 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                giveUp(pending);
+                return pending;
+            }
+        }
+    }
+
+    // One unordered bulk insert; returns the messages to retry
+    private List<Message> insert(List<Message> pending) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Message.class).insert(pending).execute();
+            return List.of();
+        } catch (BulkOperationException e) {
+            if (e.getErrors().isEmpty()) {
+                // Write concern error: the inserts may or may not be durable, retrying is safe
+                logger.warn("❌ Message insert not acknowledged: {}", e.getMessage());
+                return pending;
+            }
+            Set<Integer> failedIndexes = new HashSet<>();
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) {
+                    failedIndexes.add(error.getIndex());
+                }
+            }
+            List<Message> retry = new ArrayList<>(failedIndexes.size());
+            for (int i = 0; i < pending.size(); i++) {
+                if (failedIndexes.contains(i)) {
+                    retry.add(pending.get(i));
+                }
+            }
+            return retry;
+        } catch (Exception e) {
+            logger.warn("❌ Message insert failed: {}", e.getMessage());
+            return pending;
+        }
+    }
+
+    private void giveUp(List<Message> lost) {
+        failed.increment(lost.size());
+        logger.error("❌ Dropped {} accepted messages after {} attempts: {}", lost.size(), maxAttempts,
+                lost.stream().map(Message::getId).toList());
+        List<PushEvent> failures = new ArrayList<>(lost.size());
+        for (Message message : lost) {
+            Map<String, Object> failure = new HashMap<>();
+            failure.put("id", message.getId());
+            failure.put("receiverId", message.getReceiverId());
+            failure.put("groupId", message.getGroupId());
+            failures.add(new PushEvent(PushEvent.MESSAGE_FAILED, message.getSenderId(), failure));
+        }
+        push(failures);
+    }
+
+    // Publish on the push pool; delivery writes to client streams and must not stall the flusher
+    private void push(List<PushEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        try {
+            pushExecutor.execute(() -> {
+                for (PushEvent event : events) {
+                    try {
+                        pushSessionRegistry.publish(event);
+                    } catch (Exception e) {
+                        logger.warn("❌ Failed to push {} to {}: {}", event.type(), event.recipients(), e.getMessage());
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("❌ Message push is shut down, {} events not pushed", events.size());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.group10.clipnest.metrics;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency and returned/affected document counts of every Mongo command, tagged with the
+ * repository method that issued it (see RepositoryMethodContext) and the command name.
+ * The blocking driver calls listeners on the thread that ran the command, which is what makes
+ * the tag right; commands from the reactive driver or cursor batches fetched after the method
+ * returned are tagged "none".
+ */
+public class RepositoryCommandMetrics implements CommandListener {
+
+    private final MeterRegistry meterRegistry;
+
+    public RepositoryCommandMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        String method = RepositoryMethodContext.current();
+        timer(method, event.getCommandName(), "success").record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+
+        long documents = documentCount(event.getResponse());
+        if (documents >= 0) {
+            DistributionSummary.builder("clipnest.mongo.repository.documents")
+                    .description("Documents returned or affected per Mongo command, by repository method")
+                    .tag("method", method)
+                    .tag("command", event.getCommandName())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(documents);
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        timer(RepositoryMethodContext.current(), event.getCommandName(), "failure")
+                .record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(String method, String command, String outcome) {
+        return Timer.builder("clipnest.mongo.repository.commands")
+                .description("Latency of Mongo commands, by repository method")
+                .tag("method", method)
+                .tag("command", command)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    // Batch size for find/aggregate/getMore, n for writes and count; -1 when the reply has neither
+    static long documentCount(BsonDocument reply) {
+        BsonValue cursor = reply.get("cursor");
+        if (cursor != null && cursor.isDocument()) {
+            BsonDocument cursorDocument = cursor.asDocument();
+            BsonValue batch = cursorDocument.containsKey("firstBatch")
+                    ? cursorDocument.get("firstBatch")
+                    : cursorDocument.get("nextBatch");
+            if (batch instanceof BsonArray array) {
+                return array.size();
+            }
+        }
+        BsonValue n = reply.get("n");
+        if (n != null && n.isNumber()) {
+            return n.asNumber().longValue();
+        }
+        return -1;
+    }
+}
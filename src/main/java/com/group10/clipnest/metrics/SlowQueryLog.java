@@ -0,0 +1,114 @@
+package com.group10.clipnest.metrics;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs Mongo queries slower than a threshold with the repository method that ran them and the
+ * shape of their filter and sort: field names and operators kept, values replaced by "?", so
+ * the log says which query pattern needs an index without leaking user data.
+ */
+public class SlowQueryLog implements CommandListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    private static final Set<String> QUERY_COMMANDS = Set.of("find", "aggregate", "count", "distinct", "update", "delete", "findAndModify");
+    private static final BsonString PLACEHOLDER = new BsonString("?");
+
+    private final long thresholdNanos;
+
+    // Shapes of in-flight queries by request id; the command itself is only readable during commandStarted
+    private final Map<Integer, String> inFlight = new ConcurrentHashMap<>();
+
+    public SlowQueryLog(long thresholdMs) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMs);
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (QUERY_COMMANDS.contains(event.getCommandName())) {
+            inFlight.put(event.getRequestId(), shapeOf(event.getCommandName(), event.getCommand()));
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        finished(event.getRequestId(), event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        finished(event.getRequestId(), event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    private void finished(int requestId, String commandName, long elapsedNanos) {
+        String shape = inFlight.remove(requestId);
+        if (shape != null && elapsedNanos >= thresholdNanos) {
+            logger.warn("❌ Slow Mongo {} took {} ms in {}: {}", commandName,
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), RepositoryMethodContext.current(), shape);
+        }
+    }
+
+    static String shapeOf(String commandName, BsonDocument command) {
+        BsonDocument shape = new BsonDocument("collection", command.get(commandName, PLACEHOLDER));
+        switch (commandName) {
+            case "find" -> {
+                shape.put("filter", mask(command.get("filter", new BsonDocument())));
+                if (command.containsKey("sort")) {
+                    shape.put("sort", command.get("sort"));
+                }
+            }
+            case "aggregate" -> shape.put("pipeline", mask(command.get("pipeline", new BsonArray())));
+            case "count", "findAndModify" -> shape.put("filter", mask(command.get("query", new BsonDocument())));
+            case "distinct" -> {
+                shape.put("key", command.get("key", PLACEHOLDER));
+                shape.put("filter", mask(command.get("query", new BsonDocument())));
+            }
+            case "update", "delete" -> {
+                // Bulk writes repeat one shape; the first statement stands for the batch
+                BsonArray statements = command.getArray(commandName.equals("update") ? "updates" : "deletes", new BsonArray());
+                if (!statements.isEmpty() && statements.get(0).isDocument()) {
+                    shape.put("filter", mask(statements.get(0).asDocument().get("q", new BsonDocument())));
+                }
+                shape.put("statements", new BsonString(String.valueOf(statements.size())));
+            }
+            default -> {
+            }
+        }
+        return shape.toJson();
+    }
+
+    // Keeps keys and structure, replaces every scalar with "?"
+    static BsonValue mask(BsonValue value) {
+        if (value.isDocument()) {
+            BsonDocument masked = new BsonDocument();
+            value.asDocument().forEach((key, nested) -> masked.put(key, mask(nested)));
+            return masked;
+        }
+        if (value.isArray()) {
+            BsonArray masked = new BsonArray();
+            for (BsonValue element : value.asArray()) {
+                BsonValue maskedElement = mask(element);
+                // A long $in list is one shape, not one entry per value
+                if (!masked.contains(maskedElement)) {
+                    masked.add(maskedElement);
+                }
+            }
+            return masked;
+        }
+        return PLACEHOLDER;
+    }
+}
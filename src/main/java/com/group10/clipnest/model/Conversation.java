@@ -0,0 +1,36 @@
+package com.group10.clipnest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Inbox row for one (owner, partner) pair, maintained whenever a message is sent or read
+@Document(collection = "conversations")
+@CompoundIndexes({
+    @CompoundIndex(name = "owner_partner", def = "{ 'ownerId': 1, 'partnerId': 1 }", unique = true),
+    // Inbox range scan, newest conversation first
+    @CompoundIndex(name = "owner_last_timestamp", def = "{ 'ownerId': 1, 'lastTimestamp': -1, 'partnerId': -1 }")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class Conversation {
+    @Id
+    private String id;
+
+    private String ownerId;          // Email of the user whose inbox this is
+    private String partnerId;        // Email of the other participant
+    private String partnerUsername;
+
+    private String lastMessage;      // Preview of the latest message
+    private String lastSenderId;
+    private LocalDateTime lastTimestamp;
+
+    private long unreadCount;        // Messages from partner the owner has not read yet
+}
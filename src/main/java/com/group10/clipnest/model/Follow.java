@@ -0,0 +1,32 @@
+package com.group10.clipnest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// One edge of the follow graph: followerId follows followeeId
+@Document(collection = "follows")
+@CompoundIndexes({
+    @CompoundIndex(name = "follower_followee", def = "{ 'followerId': 1, 'followeeId': 1 }", unique = true),
+    // Followers of a user, newest first
+    @CompoundIndex(name = "followee_created", def = "{ 'followeeId': 1, 'createdAt': -1, '_id': -1 }"),
+    // Users someone follows, newest first
+    @CompoundIndex(name = "follower_created", def = "{ 'followerId': 1, 'createdAt': -1, '_id': -1 }")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class Follow {
+    @Id
+    private String id;
+
+    private String followerId;      // Email of the user who follows
+    private String followeeId;      // Email of the user being followed
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,28 @@
+package com.group10.clipnest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// A group chat; members live in group_members so large groups never bloat this document
+@Document(collection = "groups")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class Group {
+    @Id
+    private String id;
+
+    private String name;
+    private String ownerId;          // Email of the creator, who manages membership
+    private LocalDateTime createdAt;
+    private long memberCount;
+
+    private String lastMessage;      // Preview of the latest message
+    private String lastSenderId;
+    private LocalDateTime lastTimestamp;
+}
@@ -0,0 +1,36 @@
+package com.group10.clipnest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Membership of one user in one group, with how far they have read
+@Document(collection = "group_members")
+@CompoundIndexes({
+    // Membership checks and the member list, in memberId order
+    @CompoundIndex(name = "group_member", def = "{ 'groupId': 1, 'memberId': 1 }", unique = true),
+    // Groups of a user, newest membership first
+    @CompoundIndex(name = "member_joined", def = "{ 'memberId': 1, 'joinedAt': -1, '_id': -1 }")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GroupMember {
+    @Id
+    private String id;
+
+    private String groupId;
+    private String memberId;         // Email of the member
+    private String memberUsername;
+    private LocalDateTime joinedAt;
+
+    // Read watermark: everything up to (lastReadAt, lastReadMessageId) counts as read
+    private LocalDateTime lastReadAt;
+    private String lastReadMessageId;
+}
@@ -4,11 +4,30 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 
 @Document(collection = "messages")
+@CompoundIndexes({
+    // Keyset pagination of a direct conversation as one range scan; also the shard key candidate
+    @CompoundIndex(name = "conversation_timestamp", def = "{ 'conversationId': 1, 'timestamp': -1, '_id': -1 }"),
+    // Conversation paging while older messages still lack a conversationId, one branch per direction;
+    // drop once the sender/receiver fallback in MessageRepositoryImpl.conversationPageQuery is gone
+    // Direct messages still waiting for the conversationId backfill; group messages, which never
+    // have one, are left out so checking for stragglers stays cheap
+    @CompoundIndex(name = "direct_conversation_id", def = "{ 'conversationId': 1 }", partialFilter = "{ 'isGroupMessage': false }"),
+    @CompoundIndex(name = "sender_receiver_timestamp", def = "{ 'senderId': 1, 'receiverId': 1, 'timestamp': -1, '_id': -1 }"),
+    // Inbox aggregation, one index per side of the sender/receiver $or
+    @CompoundIndex(name = "sender_timestamp", def = "{ 'senderId': 1, 'timestamp': -1 }"),
+    @CompoundIndex(name = "receiver_timestamp", def = "{ 'receiverId': 1, 'timestamp': -1 }"),
+    // Unread messages of one conversation, for bulk mark-as-read and unread counts
+    @CompoundIndex(name = "receiver_sender_unread", def = "{ 'receiverId': 1, 'senderId': 1, 'isRead': 1, 'timestamp': 1 }"),
+    // Keyset pagination of a group timeline and unread counts past a member's watermark
+    @CompoundIndex(name = "group_timestamp", def = "{ 'groupId': 1, 'timestamp': -1, '_id': -1 }")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -20,6 +39,7 @@ public class Message {
     private String senderUsername;  // Username of sender
     private String receiverId;      // Email of receiver
     private String receiverUsername; // Username of receiver
+    private String conversationId;  // Both participants, see conversationIdOf; null for group messages
     
     private String content;         // Message text
     private String type;           // "text", "image", "audio", etc.
@@ -42,4 +62,9 @@ public class Message {
     // For group messages (optional)
     private String groupId;
     private boolean isGroupMessage;
+
+    // Same for both directions: the two emails in sorted order, separated by a space no email contains
+    public static String conversationIdOf(String userId1, String userId2) {
+        return userId1.compareTo(userId2) <= 0 ? userId1 + " " + userId2 : userId2 + " " + userId1;
+    }
 } 
\ No newline at end of file
@@ -4,26 +4,41 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
-import java.util.HashSet;
 import java.util.Set;
 
 @Document(collection = "users")
+@CompoundIndexes({
+    // Follow suggestion fallbacks: most followed users overall and per interest
+    @CompoundIndex(name = "followers_count", def = "{ 'followersCount': -1 }"),
+    @CompoundIndex(name = "interests_followers_count", def = "{ 'interests': 1, 'followersCount': -1 }")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class User {
     @Id
     private String id;
+    @Indexed  // Login, principal lookup and follow counter updates all go by email
     private String email;
+    @Indexed  // Profile, conversation and mention lookups all go by username
     private String username;
     private String password;
     private String birthdate;
     private String gender;
     private java.util.List<String> interests;
     private String fullName;
-    private Set<String> followers = new HashSet<>();  // Set of user IDs of users who follow this user
-    private Set<String> following = new HashSet<>();  // Set of user IDs of users this user follows
+
+    // Maintained alongside the edges in the follows collection
+    private long followersCount;
+    private long followingCount;
+
+    // Legacy embedded follow graph, only read by the follows migration which then unsets it
+    private Set<String> followers;
+    private Set<String> following;
 
 }
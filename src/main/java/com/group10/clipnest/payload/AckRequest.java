@@ -0,0 +1,16 @@
+package com.group10.clipnest.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Client acknowledgement of pushed messages: status is "delivered" or "read"
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AckRequest {
+    private List<String> messageIds;
+    private String status;
+}
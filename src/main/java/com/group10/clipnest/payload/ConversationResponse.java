@@ -0,0 +1,24 @@
+package com.group10.clipnest.payload;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.group10.clipnest.model.Conversation;
+
+import java.time.LocalDateTime;
+
+// One inbox row
+public record ConversationResponse(
+        String id,
+        String username,
+        String name,
+        String lastMessage,
+        LocalDateTime lastTimestamp,
+        long unreadCount,
+        @JsonProperty("isGroup") boolean isGroup) {
+
+    public static ConversationResponse from(Conversation conversation) {
+        // Partner full names are not stored on the summary yet, so the username doubles as the name
+        return new ConversationResponse(conversation.getPartnerUsername(), conversation.getPartnerUsername(),
+                conversation.getPartnerUsername(), conversation.getLastMessage(), conversation.getLastTimestamp(),
+                conversation.getUnreadCount(), false);
+    }
+}
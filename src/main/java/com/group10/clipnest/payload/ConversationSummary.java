@@ -0,0 +1,20 @@
+package com.group10.clipnest.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One inbox row: the latest message exchanged with a partner plus the unread count
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversationSummary {
+    private String partnerId;        // Email of the conversation partner
+    private String partnerUsername;
+    private String lastMessage;
+    private String lastSenderId;
+    private LocalDateTime lastTimestamp;
+    private long unreadCount;
+}
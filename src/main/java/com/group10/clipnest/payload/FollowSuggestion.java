@@ -0,0 +1,19 @@
+package com.group10.clipnest.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A user worth following, with the signals that put them on the list
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FollowSuggestion {
+    private String email;
+    private String username;
+    private String fullName;
+    private long followersCount;
+    private long mutualCount;       // People the viewer follows who follow this user
+    private int sharedInterests;
+    private double score;
+}
@@ -0,0 +1,17 @@
+package com.group10.clipnest.payload;
+
+import com.group10.clipnest.model.User;
+
+// One row of a followers/following list; id is the user's email
+public record FollowUserResponse(
+        String id,
+        String username,
+        String email,
+        String name,
+        long followersCount) {
+
+    public static FollowUserResponse from(User user) {
+        return new FollowUserResponse(user.getEmail(), user.getUsername(), user.getEmail(), user.getFullName(),
+                user.getFollowersCount());
+    }
+}
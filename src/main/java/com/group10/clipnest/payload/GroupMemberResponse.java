@@ -0,0 +1,16 @@
+package com.group10.clipnest.payload;
+
+import com.group10.clipnest.model.GroupMember;
+
+import java.time.LocalDateTime;
+
+// One row of a group's member list
+public record GroupMemberResponse(
+        String email,
+        String username,
+        LocalDateTime joinedAt) {
+
+    public static GroupMemberResponse from(GroupMember member) {
+        return new GroupMemberResponse(member.getMemberId(), member.getMemberUsername(), member.getJoinedAt());
+    }
+}
@@ -0,0 +1,16 @@
+package com.group10.clipnest.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Group creation (name and initial members) or adding members (usernames only)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupRequest {
+    private String name;
+    private List<String> usernames;
+}
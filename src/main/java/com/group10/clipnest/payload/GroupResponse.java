@@ -0,0 +1,22 @@
+package com.group10.clipnest.payload;
+
+import com.group10.clipnest.model.Group;
+
+import java.time.LocalDateTime;
+
+// One group as listed for a member; unreadCount is capped, see clipnest.groups.unread-cap
+public record GroupResponse(
+        String id,
+        String name,
+        String ownerId,
+        long memberCount,
+        String lastMessage,
+        String lastSenderId,
+        LocalDateTime lastTimestamp,
+        long unreadCount) {
+
+    public static GroupResponse from(Group group, long unreadCount) {
+        return new GroupResponse(group.getId(), group.getName(), group.getOwnerId(), group.getMemberCount(),
+                group.getLastMessage(), group.getLastSenderId(), group.getLastTimestamp(), unreadCount);
+    }
+}
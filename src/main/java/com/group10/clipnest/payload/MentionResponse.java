@@ -0,0 +1,22 @@
+package com.group10.clipnest.payload;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.group10.clipnest.model.User;
+
+// A user profile plus the caller's follow relation to them, for @mention typeahead
+public record MentionResponse(
+        String id,
+        String email,
+        String username,
+        String fullName,
+        long followersCount,
+        long followingCount,
+        String avatar,
+        @JsonProperty("isFollowing") boolean isFollowing,
+        @JsonProperty("isFollower") boolean isFollower) {
+
+    public static MentionResponse from(User user, boolean isFollowing, boolean isFollower) {
+        return new MentionResponse(user.getId(), user.getEmail(), user.getUsername(), user.getFullName(),
+                user.getFollowersCount(), user.getFollowingCount(), null, isFollowing, isFollower);
+    }
+}
@@ -0,0 +1,35 @@
+package com.group10.clipnest.payload;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.group10.clipnest.model.Message;
+
+import java.time.LocalDateTime;
+
+// One message as returned by the messages API; media, reply and group fields are left out when empty
+public record MessageResponse(
+        String id,
+        String senderId,
+        String senderUsername,
+        String receiverId,
+        String receiverUsername,
+        String content,
+        String type,
+        LocalDateTime timestamp,
+        @JsonProperty("isRead") boolean isRead,
+        @JsonProperty("isDelivered") boolean isDelivered,
+        @JsonProperty("isEdited") boolean isEdited,
+        @JsonProperty("isDeleted") boolean isDeleted,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String imageUri,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String audioUri,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String replyToMessageId,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String groupId) {
+
+    public static MessageResponse from(Message message) {
+        return new MessageResponse(message.getId(), message.getSenderId(), message.getSenderUsername(),
+                message.getReceiverId(), message.getReceiverUsername(), message.getContent(), message.getType(),
+                message.getTimestamp(), message.isRead(), message.isDelivered(), message.isEdited(),
+                message.isDeleted(), message.getImageUri(), message.getAudioUri(), message.getReplyToMessageId(),
+                message.getGroupId());
+    }
+}
@@ -0,0 +1,18 @@
+package com.group10.clipnest.payload;
+
+// One follow suggestion; id is the user's email
+public record SuggestionResponse(
+        String id,
+        String username,
+        String email,
+        String name,
+        long followersCount,
+        long mutualCount,
+        int sharedInterests) {
+
+    public static SuggestionResponse from(FollowSuggestion suggestion) {
+        return new SuggestionResponse(suggestion.getEmail(), suggestion.getUsername(), suggestion.getEmail(),
+                suggestion.getFullName(), suggestion.getFollowersCount(), suggestion.getMutualCount(),
+                suggestion.getSharedInterests());
+    }
+}
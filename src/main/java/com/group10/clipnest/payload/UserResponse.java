@@ -0,0 +1,20 @@
+package com.group10.clipnest.payload;
+
+import com.group10.clipnest.model.User;
+
+// Public profile of a user as returned by the users API
+public record UserResponse(
+        String id,
+        String email,
+        String username,
+        String fullName,
+        long followersCount,
+        long followingCount,
+        String avatar) {
+
+    public static UserResponse from(User user) {
+        // Avatars are not implemented yet; the field is kept so clients can rely on it
+        return new UserResponse(user.getId(), user.getEmail(), user.getUsername(), user.getFullName(),
+                user.getFollowersCount(), user.getFollowingCount(), null);
+    }
+}
@@ -0,0 +1,23 @@
+package com.group10.clipnest.push;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// Single node: publishing is a direct call into this node's sessions
+public class InMemoryPushBroker implements PushBroker {
+
+    private final List<Consumer<PushEvent>> subscribers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(PushEvent event) {
+        for (Consumer<PushEvent> subscriber : subscribers) {
+            subscriber.accept(event);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<PushEvent> subscriber) {
+        subscribers.add(subscriber);
+    }
+}
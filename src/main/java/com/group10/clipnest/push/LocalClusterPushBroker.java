@@ -0,0 +1,74 @@
+package com.group10.clipnest.push;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Stand-in for an external broker, for exercising multi-node fan-out inside one JVM.
+ * Every instance joins a process-wide bus, so several application contexts (or several
+ * brokers in a test) behave like separate nodes. Events cross the bus as JSON and are
+ * delivered on another thread, like a real network hop would.
+ */
+public class LocalClusterPushBroker implements PushBroker {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalClusterPushBroker.class);
+
+    private static final List<LocalClusterPushBroker> NODES = new CopyOnWriteArrayList<>();
+
+    private final ObjectMapper objectMapper;
+    private final List<Consumer<PushEvent>> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService inbox = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "push-cluster-inbox");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LocalClusterPushBroker(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        NODES.add(this);
+    }
+
+    @Override
+    public void publish(PushEvent event) {
+        byte[] wire;
+        try {
+            wire = objectMapper.writeValueAsBytes(event);
+        } catch (IOException e) {
+            logger.error("❌ Could not serialize push event for {} recipients: {}", event.recipients().size(), e.getMessage());
+            return;
+        }
+        for (LocalClusterPushBroker node : NODES) {
+            node.inbox.execute(() -> node.receive(wire));
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<PushEvent> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    // Leave the bus, e.g. when a context or test node shuts down
+    public void leave() {
+        NODES.remove(this);
+        inbox.shutdown();
+    }
+
+    private void receive(byte[] wire) {
+        try {
+            PushEvent event = objectMapper.readValue(wire, PushEvent.class);
+            for (Consumer<PushEvent> subscriber : subscribers) {
+                subscriber.accept(event);
+            }
+        } catch (Exception e) {
+            logger.error("❌ Could not deliver push event from the cluster bus: {}", e.getMessage());
+        }
+    }
+}
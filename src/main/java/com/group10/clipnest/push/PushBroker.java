@@ -0,0 +1,16 @@
+package com.group10.clipnest.push;
+
+import java.util.function.Consumer;
+
+/**
+ * Fan-out between application nodes. A published event reaches the subscriber of every node,
+ * and each node hands it to the recipient's sessions it holds, if any.
+ * Selected with clipnest.push.broker, see PushConfig.
+ */
+public interface PushBroker {
+
+    void publish(PushEvent event);
+
+    // Registers this node's local delivery callback
+    void subscribe(Consumer<PushEvent> subscriber);
+}
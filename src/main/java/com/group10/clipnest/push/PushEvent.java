@@ -0,0 +1,36 @@
+package com.group10.clipnest.push;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.util.List;
+
+// Something to push to every open session of each recipient; type becomes the SSE event name.
+// A group event names no recipients: each node resolves which of its connected users are members.
+public record PushEvent(String type, List<String> recipients, Object payload, GroupAudience group) {
+
+    public static final String MESSAGE = "message";
+    public static final String RECEIPT = "receipt";
+    public static final String GROUP_MESSAGE = "groupMessage";
+    // An accepted message that could not be stored, sent back to its sender
+    public static final String MESSAGE_FAILED = "messageFailed";
+
+    @JsonCreator
+    public PushEvent {
+    }
+
+    public PushEvent(String type, List<String> recipients, Object payload) {
+        this(type, recipients, payload, null);
+    }
+
+    public PushEvent(String type, String recipient, Object payload) {
+        this(type, List.of(recipient), payload, null);
+    }
+
+    // For the members of groupId, other than exceptMemberId (the sender)
+    public static PushEvent toGroup(String type, String groupId, String exceptMemberId, Object payload) {
+        return new PushEvent(type, List.of(), payload, new GroupAudience(groupId, exceptMemberId));
+    }
+
+    public record GroupAudience(String groupId, String exceptMemberId) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.group10.clipnest.push;
+
+// One open client connection
+public interface PushSession {
+
+    // False once the connection is gone, so the registry can drop it
+    boolean send(PushEvent event);
+
+    // Keep-alive that proxies and mobile networks do not time out
+    boolean ping();
+}
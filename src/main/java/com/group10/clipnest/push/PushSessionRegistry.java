@@ -0,0 +1,83 @@
+package com.group10.clipnest.push;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sessions held by this node, by user email. Outgoing events go through the broker so that
+ * whichever node holds the recipient's sessions delivers them.
+ */
+@Component
+public class PushSessionRegistry {
+
+    private final PushBroker pushBroker;
+    private final Map<String, Set<PushSession>> sessions = new ConcurrentHashMap<>();
+
+    public PushSessionRegistry(PushBroker pushBroker) {
+        this.pushBroker = pushBroker;
+        pushBroker.subscribe(this::deliverLocally);
+    }
+
+    public void register(String email, PushSession session) {
+        sessions.computeIfAbsent(email, key -> ConcurrentHashMap.newKeySet()).add(session);
+    }
+
+    public void unregister(String email, PushSession session) {
+        sessions.computeIfPresent(email, (key, userSessions) -> {
+            userSessions.remove(session);
+            return userSessions.isEmpty() ? null : userSessions;
+        });
+    }
+
+    public void publish(PushEvent event) {
+        pushBroker.publish(event);
+    }
+
+    public int sessionCount() {
+        return sessions.values().stream().mapToInt(Set::size).sum();
+    }
+
+    // Users with at least one session on this node; a live view
+    public Set<String> localUsers() {
+        return Collections.unmodifiableSet(sessions.keySet());
+    }
+
+    public boolean isLocal(String email) {
+        return sessions.containsKey(email);
+    }
+
+    // Returns how many of the recipients' sessions on this node got the event
+    public int deliverLocally(PushEvent event) {
+        int delivered = 0;
+        for (String recipient : event.recipients()) {
+            Set<PushSession> userSessions = sessions.get(recipient);
+            if (userSessions == null) {
+                continue;
+            }
+            for (PushSession session : userSessions) {
+                if (session.send(event)) {
+                    delivered++;
+                } else {
+                    unregister(recipient, session);
+                }
+            }
+        }
+        return delivered;
+    }
+
+    @Scheduled(fixedRateString = "${clipnest.push.heartbeat-interval-ms:25000}")
+    public void heartbeat() {
+        sessions.forEach((email, userSessions) -> {
+            for (PushSession session : userSessions) {
+                if (!session.ping()) {
+                    unregister(email, session);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,37 @@
+package com.group10.clipnest.push;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+// Server-sent events connection; each event carries its type as the SSE event name
+public class SsePushSession implements PushSession {
+
+    private final SseEmitter emitter;
+
+    public SsePushSession(SseEmitter emitter) {
+        this.emitter = emitter;
+    }
+
+    @Override
+    public boolean send(PushEvent event) {
+        try {
+            emitter.send(SseEmitter.event().name(event.type()).data(event.payload()));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    @Override
+    public boolean ping() {
+        try {
+            emitter.send(SseEmitter.event().comment("ping"));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.group10.clipnest.repository;
+
+import com.group10.clipnest.model.Conversation;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface ConversationRepository extends MongoRepository<Conversation, String>, ConversationRepositoryCustom {
+}
@@ -0,0 +1,27 @@
+package com.group10.clipnest.repository;
+
+import com.group10.clipnest.model.Conversation;
+import com.group10.clipnest.model.Message;
+import com.group10.clipnest.payload.ConversationSummary;
+import com.group10.clipnest.payload.PageCursor;
+
+import java.util.List;
+
+public interface ConversationRepositoryCustom {
+
+    // Upsert both participants' rows for a batch of newly sent direct messages, in order, with one bulk
+    // write; a message older than a row's current preview only bumps the receiver's unread count
+    void recordMessages(List<Message> messages);
+
+    // Take count messages just marked read off the owner's unread counter for one partner, never
+    // below zero, and return what is left. An $inc rather than a $set, so a message recorded
+    // concurrently by recordMessages is not overwritten
+    long decrementUnreadCount(String ownerId, String partnerId, long count);
+
+    // Owner's inbox, newest conversation first, starting strictly after the given cursor
+    List<Conversation> findInboxPage(String ownerId, PageCursor before, int limit);
+
+    // Write summaries recomputed from the messages collection into the owner's rows, except rows
+    // that have since recorded a newer message
+    int upsertSummaries(String ownerId, List<ConversationSummary> summaries);
+}
@@ -0,0 +1,140 @@
+package com.group10.clipnest.repository;
+
+import com.group10.clipnest.model.Conversation;
+import com.group10.clipnest.model.Message;
+import com.group10.clipnest.payload.ConversationSummary;
+import com.group10.clipnest.payload.PageCursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class ConversationRepositoryImpl implements ConversationRepositoryCustom {
+
+    // A missing row matches neither guard, so give up after a few rounds rather than spin
+    static final int DECREMENT_ATTEMPTS = 3;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void recordMessages(List<Message> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        // Ordered, so of two messages with the same timestamp the later one in the batch wins the preview
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Conversation.class);
+        for (Message message : messages) {
+            // Sender's row: nothing unread on their side
+            bulk.upsert(pairQuery(message.getSenderId(), message.getReceiverId()), new Update().inc("unreadCount", 0L));
+            bulk.updateOne(notNewerThan(message.getSenderId(), message.getReceiverId(), message.getTimestamp()),
+                    previewUpdate(message.getReceiverUsername(), message.getContent(), message.getSenderId(), message.getTimestamp()));
+            // Receiver's row: one more unread message whether or not the preview moves
+            bulk.upsert(pairQuery(message.getReceiverId(), message.getSenderId()), new Update().inc("unreadCount", 1L));
+            bulk.updateOne(notNewerThan(message.getReceiverId(), message.getSenderId(), message.getTimestamp()),
+                    previewUpdate(message.getSenderUsername(), message.getContent(), message.getSenderId(), message.getTimestamp()));
+        }
+        bulk.execute();
+    }
+
+    @Override
+    public long decrementUnreadCount(String ownerId, String partnerId, long count) {
+        if (count <= 0) {
+            Conversation conversation = mongoTemplate.findOne(pairQuery(ownerId, partnerId), Conversation.class);
+            return conversation == null ? 0 : conversation.getUnreadCount();
+        }
+        // Each attempt either takes count off a counter that holds at least that many or zeroes one
+        // that holds fewer; it only falls through if a send moved the counter between the two
+        for (int attempt = 0; attempt < DECREMENT_ATTEMPTS; attempt++) {
+            Conversation decremented = mongoTemplate.findAndModify(unreadAtLeast(ownerId, partnerId, count),
+                    new Update().inc("unreadCount", -count), FindAndModifyOptions.options().returnNew(true), Conversation.class);
+            if (decremented != null) {
+                return decremented.getUnreadCount();
+            }
+            if (mongoTemplate.updateFirst(unreadBelow(ownerId, partnerId, count),
+                    new Update().set("unreadCount", 0L), Conversation.class).getMatchedCount() > 0) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public List<Conversation> findInboxPage(String ownerId, PageCursor before, int limit) {
+        return mongoTemplate.find(inboxPageQuery(ownerId, before, limit), Conversation.class);
+    }
+
+    // Shared with ReactiveConversationRepositoryImpl so both stacks run the same query
+    static Query inboxPageQuery(String ownerId, PageCursor before, int limit) {
+        Criteria criteria = Criteria.where("ownerId").is(ownerId);
+        if (before != null) {
+            criteria = criteria.and("lastTimestamp").lte(before.getTimestamp())
+                    .orOperator(
+                            Criteria.where("lastTimestamp").lt(before.getTimestamp()),
+                            Criteria.where("partnerId").lt(before.getId()));
+        }
+        return new Query(criteria)
+                .with(Sort.by(Sort.Order.desc("lastTimestamp"), Sort.Order.desc("partnerId")))
+                .limit(limit);
+    }
+
+    @Override
+    public int upsertSummaries(String ownerId, List<ConversationSummary> summaries) {
+        if (summaries.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Conversation.class);
+        for (ConversationSummary summary : summaries) {
+            // Missing rows are created whole; existing ones only take the summary while no newer
+            // message has been recorded, since that message's live $inc is already in the count
+            bulk.upsert(pairQuery(ownerId, summary.getPartnerId()), new Update()
+                    .setOnInsert("partnerUsername", summary.getPartnerUsername())
+                    .setOnInsert("lastMessage", summary.getLastMessage())
+                    .setOnInsert("lastSenderId", summary.getLastSenderId())
+                    .setOnInsert("lastTimestamp", summary.getLastTimestamp())
+                    .setOnInsert("unreadCount", summary.getUnreadCount()));
+            bulk.updateOne(notNewerThan(ownerId, summary.getPartnerId(), summary.getLastTimestamp()),
+                    previewUpdate(summary.getPartnerUsername(), summary.getLastMessage(), summary.getLastSenderId(), summary.getLastTimestamp())
+                            .set("unreadCount", summary.getUnreadCount()));
+        }
+        bulk.execute();
+        return summaries.size();
+    }
+
+    static Query pairQuery(String ownerId, String partnerId) {
+        return new Query(Criteria.where("ownerId").is(ownerId).and("partnerId").is(partnerId));
+    }
+
+    // The pair's row if its counter can take count off without going negative
+    static Query unreadAtLeast(String ownerId, String partnerId, long count) {
+        return new Query(Criteria.where("ownerId").is(ownerId).and("partnerId").is(partnerId).and("unreadCount").gte(count));
+    }
+
+    static Query unreadBelow(String ownerId, String partnerId, long count) {
+        return new Query(Criteria.where("ownerId").is(ownerId).and("partnerId").is(partnerId).and("unreadCount").lt(count));
+    }
+
+    // The pair's row unless it already previews something newer, so a late or retried write
+    // never moves the inbox backwards
+    private static Query notNewerThan(String ownerId, String partnerId, LocalDateTime timestamp) {
+        return new Query(Criteria.where("ownerId").is(ownerId).and("partnerId").is(partnerId)
+                .orOperator(
+                        Criteria.where("lastTimestamp").is(null),
+                        Criteria.where("lastTimestamp").lte(timestamp)));
+    }
+
+    private static Update previewUpdate(String partnerUsername, String lastMessage, String lastSenderId, LocalDateTime lastTimestamp) {
+        return new Update()
+                .set("partnerUsername", partnerUsername)
+                .set("lastMessage", lastMessage)
+                .set("lastSenderId", lastSenderId)
+                .set("lastTimestamp", lastTimestamp);
+    }
+}
@@ -0,0 +1,28 @@
+package com.group10.clipnest.repository;
+
+import com.group10.clipnest.model.Follow;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface FollowRepository extends MongoRepository<Follow, String>, FollowRepositoryCustom {
+
+    boolean existsByFollowerIdAndFolloweeId(String followerId, String followeeId);
+
+    // Which of the given users does followerId follow
+    List<Follow> findByFollowerIdAndFolloweeIdIn(String followerId, Collection<String> followeeIds);
+
+    // Which of the given users follow followeeId
+    List<Follow> findByFolloweeIdAndFollowerIdIn(String followeeId, Collection<String> followerIds);
+
+    // Newest edges out of followerId, only the followee end; bounded so high-degree users stay cheap
+    @Query(value = "{ 'followerId': ?0 }", fields = "{ 'followeeId': 1 }", sort = "{ 'createdAt': -1 }")
+    List<Follow> findRecentFollowees(String followerId, Limit limit);
+
+    // Newest edges into followeeId, only the follower end
+    @Query(value = "{ 'followeeId': ?0 }", fields = "{ 'followerId': 1 }", sort = "{ 'createdAt': -1 }")
+    List<Follow> findRecentFollowers(String followeeId, Limit limit);
+}
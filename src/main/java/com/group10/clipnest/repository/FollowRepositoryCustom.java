@@ -0,0 +1,42 @@
+package com.group10.clipnest.repository;
+
+import com.group10.clipnest.model.Follow;
+import com.group10.clipnest.payload.PageCursor;
+
+import java.util.List;
+import java.util.Map;
+
+public interface FollowRepositoryCustom {
+
+    // Edges pointing at followeeId, newest first, starting strictly after the (createdAt, id) cursor
+    List<Follow> findFollowersPage(String followeeId, PageCursor before, int limit);
+
+    // Edges going out of followerId, newest first, starting strictly after the (createdAt, id) cursor
+    List<Follow> findFollowingPage(String followerId, PageCursor before, int limit);
+
+    // Create the edge if it does not exist yet. Counters move only when this call created the
+    // edge, so repeated or concurrent follows are idempotent. True if the edge was created.
+    boolean follow(String followerId, String followeeId);
+
+    // Delete the edge if present, decrementing counters only when this call removed it
+    boolean unfollow(String followerId, String followeeId);
+
+    // Move the legacy embedded User.followers/following sets into follow edges, batchSize
+    // edges per bulk write, and drop the sets from each user once copied. Returns edges written.
+    long migrateEmbeddedFollowGraph(int batchSize);
+
+    // Compare every user's followersCount/followingCount with the edges and overwrite the ones
+    // that drifted, unless a live update moved them since they were read. Returns how many users
+    // were repaired.
+    long repairFollowCounters();
+
+    // Keep the oldest edge of every (followerId, followeeId) pair that has more than one and delete
+    // the rest, so the unique follower_followee index can be built. Counters are left to
+    // repairFollowCounters. Returns edges deleted.
+    long removeDuplicateEdges();
+
+    // Users followed by the people userId follows, with how many of those people follow each one,
+    // most shared first. Only the newest firstHopLimit edges of userId and the newest perFriendLimit
+    // edges of each friend are walked. May include users userId already follows.
+    Map<String, Long> findFriendsOfFriends(String userId, int firstHopLimit, int perFriendLimit, int poolSize);
+}
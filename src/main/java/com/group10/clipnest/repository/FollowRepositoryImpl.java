@@ -0,0 +1,282 @@
+package com.group10.clipnest.repository;
+
+import com.group10.clipnest.model.Follow;
+import com.group10.clipnest.model.User;
+import com.group10.clipnest.payload.PageCursor;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public class FollowRepositoryImpl implements FollowRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Follow> findFollowersPage(String followeeId, PageCursor before, int limit) {
+        return findEdgePage("followeeId", followeeId, before, limit);
+    }
+
+    @Override
+    public List<Follow> findFollowingPage(String followerId, PageCursor before, int limit) {
+        return findEdgePage("followerId", followerId, before, limit);
+    }
+
+    @Override
+    public boolean follow(String followerId, String followeeId) {
+        UpdateResult result;
+        try {
+            // Upsert on the unique (followerId, followeeId) key: exactly one concurrent caller inserts
+            result = mongoTemplate.upsert(edgeQuery(followerId, followeeId),
+                    new Update().setOnInsert("createdAt", LocalDateTime.now()), Follow.class);
+        } catch (DuplicateKeyException e) {
+            // Lost the insert race to a concurrent follow of the same pair
+            return false;
+        }
+        if (result.getUpsertedId() == null) {
+            return false;
+        }
+        adjustCounters(followerId, followeeId, 1);
+        return true;
+    }
+
+    @Override
+    public boolean unfollow(String followerId, String followeeId) {
+        DeleteResult result = mongoTemplate.remove(edgeQuery(followerId, followeeId), Follow.class);
+        if (result.getDeletedCount() == 0) {
+            return false;
+        }
+        adjustCounters(followerId, followeeId, -1);
+        return true;
+    }
+
+    @Override
+    public long migrateEmbeddedFollowGraph(int batchSize) {
+        Query legacyUsers = new Query(new Criteria().orOperator(
+                Criteria.where("followers").exists(true),
+                Criteria.where("following").exists(true)));
+        legacyUsers.fields().include("email", "followers", "following");
+
+        LocalDateTime migratedAt = LocalDateTime.now();
+        List<String[]> pendingEdges = new ArrayList<>();
+        List<String> pendingUsers = new ArrayList<>();
+        long written = 0;
+
+        try (Stream<User> users = mongoTemplate.stream(legacyUsers, User.class)) {
+            Iterator<User> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                User user = iterator.next();
+                String email = user.getEmail();
+                if (email != null) {
+                    // Either side may be missing an entry, so take edges from both sets; upserts dedupe them
+                    addEdges(pendingEdges, email, user.getFollowing(), true);
+                    addEdges(pendingEdges, email, user.getFollowers(), false);
+                    pendingUsers.add(email);
+                }
+                if (pendingEdges.size() >= batchSize) {
+                    written += flushMigrationBatch(pendingEdges, pendingUsers, migratedAt);
+                }
+            }
+        }
+        written += flushMigrationBatch(pendingEdges, pendingUsers, migratedAt);
+        return written;
+    }
+
+    @Override
+    public long repairFollowCounters() {
+        // Server-side pass over users: each $lookup is an index-only count on the follows
+        // collection, and only users whose stored counters disagree come back
+        List<AggregationOperation> stages = List.of(
+                Aggregation.stage(new Document("$project", new Document("email", 1)
+                        .append("followersCount", 1)
+                        .append("followingCount", 1))),
+                Aggregation.stage(edgeCountLookup("followeeId", "actualFollowers")),
+                Aggregation.stage(edgeCountLookup("followerId", "actualFollowing")),
+                Aggregation.stage(new Document("$project", new Document("email", 1)
+                        .append("followersCount", new Document("$ifNull", List.of("$followersCount", 0)))
+                        .append("followingCount", new Document("$ifNull", List.of("$followingCount", 0)))
+                        .append("actualFollowers", new Document("$ifNull",
+                                List.of(new Document("$first", "$actualFollowers.n"), 0)))
+                        .append("actualFollowing", new Document("$ifNull",
+                                List.of(new Document("$first", "$actualFollowing.n"), 0))))),
+                Aggregation.stage(new Document("$match", new Document("$expr", new Document("$or", List.of(
+                        new Document("$ne", List.of("$followersCount", "$actualFollowers")),
+                        new Document("$ne", List.of("$followingCount", "$actualFollowing"))))))));
+
+        long repaired = 0;
+        try (Stream<Document> drifted = mongoTemplate.aggregateStream(
+                Aggregation.newAggregation(stages), "users", Document.class)) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+            int pending = 0;
+            Iterator<Document> iterator = drifted.iterator();
+            while (iterator.hasNext()) {
+                Document user = iterator.next();
+                // Only overwrite the counters we read: if a live $inc moved one since, this user
+                // is skipped and the next run looks again
+                bulk.updateOne(new Query(Criteria.where("id").is(user.get("_id"))
+                                .andOperator(
+                                        observed("followersCount", (Number) user.get("followersCount")),
+                                        observed("followingCount", (Number) user.get("followingCount")))),
+                        new Update()
+                                .set("followersCount", ((Number) user.get("actualFollowers")).longValue())
+                                .set("followingCount", ((Number) user.get("actualFollowing")).longValue()));
+                if (++pending == 1000) {
+                    repaired += bulk.execute().getModifiedCount();
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                repaired += bulk.execute().getModifiedCount();
+            }
+        }
+        return repaired;
+    }
+
+    // A counter the aggregation saw as 0 may also be a missing field
+    private static Criteria observed(String field, Number value) {
+        long count = value.longValue();
+        return count == 0 ? Criteria.where(field).in(0L, null) : Criteria.where(field).is(count);
+    }
+
+    // Served by the (followeeId|followerId, createdAt, _id) indexes
+    @Override
+    public long removeDuplicateEdges() {
+        List<AggregationOperation> stages = List.of(
+                Aggregation.stage(new Document("$sort", new Document("_id", 1))),
+                Aggregation.stage(new Document("$group", new Document()
+                        .append("_id", new Document("followerId", "$followerId").append("followeeId", "$followeeId"))
+                        .append("ids", new Document("$push", "$_id"))
+                        .append("count", new Document("$sum", 1)))),
+                Aggregation.stage(new Document("$match", new Document("count", new Document("$gt", 1)))));
+
+        long removed = 0;
+        try (Stream<Document> duplicated = mongoTemplate.aggregateStream(Aggregation.newAggregation(stages)
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build()), "follows", Document.class)) {
+            Iterator<Document> iterator = duplicated.iterator();
+            while (iterator.hasNext()) {
+                List<?> ids = iterator.next().getList("ids", Object.class);
+                removed += mongoTemplate.remove(new Query(Criteria.where("_id").in(ids.subList(1, ids.size()))), Follow.class)
+                        .getDeletedCount();
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public Map<String, Long> findFriendsOfFriends(String userId, int firstHopLimit, int perFriendLimit, int poolSize) {
+        // Both hops walk the (followerId, createdAt) index newest first and stop at their limit,
+        // so neither a user following thousands nor a friend following thousands widens the walk
+        List<AggregationOperation> stages = List.of(
+                Aggregation.stage(new Document("$match", new Document("followerId", userId))),
+                Aggregation.stage(new Document("$sort", new Document("createdAt", -1))),
+                Aggregation.stage(new Document("$limit", firstHopLimit)),
+                Aggregation.stage(new Document("$lookup", new Document("from", "follows")
+                        .append("let", new Document("friend", "$followeeId"))
+                        .append("pipeline", List.of(
+                                new Document("$match", new Document("$expr",
+                                        new Document("$eq", List.of("$followerId", "$$friend")))),
+                                new Document("$sort", new Document("createdAt", -1)),
+                                new Document("$limit", perFriendLimit),
+                                new Document("$project", new Document("_id", 0).append("followeeId", 1))))
+                        .append("as", "next"))),
+                Aggregation.stage(new Document("$unwind", "$next")),
+                Aggregation.stage(new Document("$group", new Document("_id", "$next.followeeId")
+                        .append("mutuals", new Document("$sum", 1)))),
+                Aggregation.stage(new Document("$match", new Document("_id", new Document("$ne", userId)))),
+                Aggregation.stage(new Document("$sort", new Document("mutuals", -1).append("_id", 1))),
+                Aggregation.stage(new Document("$limit", poolSize)));
+
+        Map<String, Long> mutuals = new LinkedHashMap<>();
+        for (Document candidate : mongoTemplate.aggregate(
+                Aggregation.newAggregation(stages), "follows", Document.class).getMappedResults()) {
+            mutuals.put(candidate.getString("_id"), ((Number) candidate.get("mutuals")).longValue());
+        }
+        return mutuals;
+    }
+
+    private List<Follow> findEdgePage(String field, String userId, PageCursor before, int limit) {
+        Criteria criteria = Criteria.where(field).is(userId);
+        if (before != null) {
+            criteria = criteria.and("createdAt").lte(before.getTimestamp())
+                    .orOperator(
+                            Criteria.where("createdAt").lt(before.getTimestamp()),
+                            Criteria.where("id").lt(before.getId()));
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id")))
+                .limit(limit);
+        return mongoTemplate.find(query, Follow.class);
+    }
+
+    // Field-level $inc on each side; never rewrites the user documents
+    private void adjustCounters(String followerId, String followeeId, long delta) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("email").is(followeeId)),
+                new Update().inc("followersCount", delta), User.class);
+        mongoTemplate.updateFirst(new Query(Criteria.where("email").is(followerId)),
+                new Update().inc("followingCount", delta), User.class);
+    }
+
+    private Query edgeQuery(String followerId, String followeeId) {
+        return new Query(Criteria.where("followerId").is(followerId).and("followeeId").is(followeeId));
+    }
+
+    private void addEdges(List<String[]> edges, String email, Set<String> others, boolean outgoing) {
+        if (others == null) {
+            return;
+        }
+        for (String other : others) {
+            if (other != null && !other.equals(email)) {
+                edges.add(outgoing ? new String[]{email, other} : new String[]{other, email});
+            }
+        }
+    }
+
+    private long flushMigrationBatch(List<String[]> edges, List<String> userEmails, LocalDateTime migratedAt) {
+        if (!edges.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Follow.class);
+            for (String[] edge : edges) {
+                bulk.upsert(edgeQuery(edge[0], edge[1]),
+                        new Update().setOnInsert("createdAt", migratedAt));
+            }
+            bulk.execute();
+        }
+        // Only drop the embedded sets once their edges are safely written
+        if (!userEmails.isEmpty()) {
+            mongoTemplate.updateMulti(new Query(Criteria.where("email").in(userEmails)),
+                    new Update().unset("followers").unset("following"), User.class);
+        }
+        long written = edges.size();
+        edges.clear();
+        userEmails.clear();
+        return written;
+    }
+
+    private Document edgeCountLookup(String foreignField, String as) {
+        return new Document("$lookup", new Document("from", "follows")
+                .append("localField", "email")
+                .append("foreignField", foreignField)
+                .append("pipeline", List.of(new Document("$count", "n")))
+                .append("as", as));
+    }
+}
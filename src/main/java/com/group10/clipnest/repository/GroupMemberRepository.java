@@ -0,0 +1,19 @@
+package com.group10.clipnest.repository;
+
+import com.group10.clipnest.model.GroupMember;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface GroupMemberRepository extends MongoRepository<GroupMember, String>, GroupMemberRepositoryCustom {
+
+    Optional<GroupMember> findByGroupIdAndMemberId(String groupId, String memberId);
+
+    boolean existsByGroupIdAndMemberId(String groupId, String memberId);
+
+    // Cursor-backed stream of a group's member emails, for fan-out; close it when done
+    @Query(value = "{ 'groupId': ?0 }", fields = "{ 'memberId': 1 }")
+    Stream<GroupMember> streamMemberIds(String groupId);
+}
@@ -0,0 +1,31 @@
+package com.group10.clipnest.repository;
+
+import com.group10.clipnest.model.GroupMember;
+import com.group10.clipnest.payload.PageCursor;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface GroupMemberRepositoryCustom {
+
+    // Add the member if not in the group yet, moving memberCount only when this call added them.
+    // True if the member was added.
+    boolean addMember(String groupId, String memberId, String memberUsername);
+
+    // Remove the member if present, decrementing memberCount only when this call removed them
+    boolean removeMember(String groupId, String memberId);
+
+    // Members of a group in memberId order, starting strictly after afterMemberId
+    List<GroupMember> findMembersPage(String groupId, String afterMemberId, int limit);
+
+    // Which of memberIds are members of the group, in one lookup on the (groupId, memberId) index
+    List<String> findMemberIds(String groupId, Collection<String> memberIds);
+
+    // Groups memberId belongs to, newest membership first, starting strictly after the (joinedAt, id) cursor
+    List<GroupMember> findMembershipsPage(String memberId, PageCursor before, int limit);
+
+    // Move the member's read watermark forward to (readAt, messageId); never moves it back.
+    // True if it moved.
+    boolean advanceReadWatermark(String groupId, String memberId, LocalDateTime readAt, String messageId);
+}
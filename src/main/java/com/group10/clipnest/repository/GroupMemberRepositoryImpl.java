@@ -0,0 +1,113 @@
+package com.group10.clipnest.repository;
+
+import com.group10.clipnest.model.Group;
+import com.group10.clipnest.model.GroupMember;
+import com.group10.clipnest.payload.PageCursor;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public class GroupMemberRepositoryImpl implements GroupMemberRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean addMember(String groupId, String memberId, String memberUsername) {
+        UpdateResult result;
+        try {
+            // Upsert on the unique (groupId, memberId) key: exactly one concurrent caller inserts
+            result = mongoTemplate.upsert(memberQuery(groupId, memberId), new Update()
+                    .setOnInsert("memberUsername", memberUsername)
+                    .setOnInsert("joinedAt", LocalDateTime.now()), GroupMember.class);
+        } catch (DuplicateKeyException e) {
+            // Lost the insert race to a concurrent add of the same member
+            return false;
+        }
+        if (result.getUpsertedId() == null) {
+            return false;
+        }
+        adjustMemberCount(groupId, 1);
+        return true;
+    }
+
+    @Override
+    public boolean removeMember(String groupId, String memberId) {
+        DeleteResult result = mongoTemplate.remove(memberQuery(groupId, memberId), GroupMember.class);
+        if (result.getDeletedCount() == 0) {
+            return false;
+        }
+        adjustMemberCount(groupId, -1);
+        return true;
+    }
+
+    @Override
+    public List<GroupMember> findMembersPage(String groupId, String afterMemberId, int limit) {
+        Criteria criteria = Criteria.where("groupId").is(groupId);
+        if (afterMemberId != null) {
+            criteria = criteria.and("memberId").gt(afterMemberId);
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Order.asc("memberId")))
+                .limit(limit);
+        return mongoTemplate.find(query, GroupMember.class);
+    }
+
+    @Override
+    public List<String> findMemberIds(String groupId, Collection<String> memberIds) {
+        Query query = new Query(Criteria.where("groupId").is(groupId).and("memberId").in(memberIds));
+        query.fields().include("memberId");
+        return mongoTemplate.find(query, GroupMember.class).stream()
+                .map(GroupMember::getMemberId)
+                .toList();
+    }
+
+    @Override
+    public List<GroupMember> findMembershipsPage(String memberId, PageCursor before, int limit) {
+        Criteria criteria = Criteria.where("memberId").is(memberId);
+        if (before != null) {
+            criteria = criteria.and("joinedAt").lte(before.getTimestamp())
+                    .orOperator(
+                            Criteria.where("joinedAt").lt(before.getTimestamp()),
+                            Criteria.where("id").lt(before.getId()));
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Order.desc("joinedAt"), Sort.Order.desc("id")))
+                .limit(limit);
+        return mongoTemplate.find(query, GroupMember.class);
+    }
+
+    @Override
+    public boolean advanceReadWatermark(String groupId, String memberId, LocalDateTime readAt, String messageId) {
+        // Only match while the stored watermark is behind, so concurrent or stale reads cannot move it back
+        Criteria criteria = Criteria.where("groupId").is(groupId)
+                .and("memberId").is(memberId)
+                .orOperator(
+                        Criteria.where("lastReadAt").is(null),
+                        Criteria.where("lastReadAt").lt(readAt),
+                        Criteria.where("lastReadAt").is(readAt).and("lastReadMessageId").lt(messageId));
+        return mongoTemplate.updateFirst(new Query(criteria), new Update()
+                        .set("lastReadAt", readAt)
+                        .set("lastReadMessageId", messageId), GroupMember.class)
+                .getModifiedCount() > 0;
+    }
+
+    private void adjustMemberCount(String groupId, long delta) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("id").is(groupId)),
+                new Update().inc("memberCount", delta), Group.class);
+    }
+
+    private Query memberQuery(String groupId, String memberId) {
+        return new Query(Criteria.where("groupId").is(groupId).and("memberId").is(memberId));
+    }
+}
@@ -0,0 +1,7 @@
+package com.group10.clipnest.repository;
+
+import com.group10.clipnest.model.Group;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface GroupRepository extends MongoRepository<Group, String>, GroupRepositoryCustom {
+}
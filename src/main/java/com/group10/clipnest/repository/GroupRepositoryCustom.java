@@ -0,0 +1,11 @@
+package com.group10.clipnest.repository;
+
+import com.group10.clipnest.model.Message;
+
+import java.util.List;
+
+public interface GroupRepositoryCustom {
+
+    // Move each group's preview to its latest message in the batch, with one bulk write
+    void recordMessages(List<Message> messages);
+}
@@ -0,0 +1,40 @@
+package com.group10.clipnest.repository;
+
+import com.group10.clipnest.model.Group;
+import com.group10.clipnest.model.Message;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class GroupRepositoryImpl implements GroupRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void recordMessages(List<Message> messages) {
+        // Only the last message per group matters for the preview
+        Map<String, Message> latest = new LinkedHashMap<>();
+        for (Message message : messages) {
+            latest.put(message.getGroupId(), message);
+        }
+        if (latest.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Group.class);
+        for (Message message : latest.values()) {
+            bulk.updateOne(new Query(Criteria.where("id").is(message.getGroupId())), new Update()
+                    .set("lastMessage", message.getContent())
+                    .set("lastSenderId", message.getSenderId())
+                    .set("lastTimestamp", message.getTimestamp()));
+        }
+        bulk.execute();
+    }
+}
@@ -0,0 +1,56 @@
+package com.group10.clipnest.repository;
+
+import com.group10.clipnest.model.GroupMember;
+import com.group10.clipnest.model.Message;
+import com.group10.clipnest.payload.ConversationSummary;
+import com.group10.clipnest.payload.PageCursor;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public interface MessageRepositoryCustom {
+
+    // One page of a direct conversation, returned oldest first.
+    // With no cursor the newest page is returned; "before" walks back in history, "after" walks forward.
+    // byConversationId reads the conversationId range, which is only complete once every message has one
+    // (see ConversationIdBackfillJob); otherwise the page is matched on senderId/receiverId.
+    List<Message> findConversationPage(String userId1, String userId2, PageCursor before, PageCursor after, int limit,
+                                       boolean byConversationId);
+
+    // Inbox for a user computed in one aggregation: latest message and unread count per partner,
+    // streamed from the cursor in no particular order. Close the stream.
+    Stream<ConversationSummary> streamConversationSummaries(String userId);
+
+    // Flag unread messages from sender to receiver as read in one updateMany and return how many changed.
+    // A null watermark marks everything; otherwise only messages at or before (upToTimestamp, upToMessageId).
+    long markConversationRead(String receiverId, String senderId, LocalDateTime upToTimestamp, String upToMessageId);
+
+    // Keyset page of a group timeline, same cursor semantics as findConversationPage
+    List<Message> findGroupPage(String groupId, PageCursor before, PageCursor after, int limit);
+
+    // Messages in the group after the (readAt, readMessageId) watermark that memberId did not send,
+    // counting at most cap of them. A null readAt counts from the start of the group.
+    long countGroupUnread(String groupId, String memberId, LocalDateTime readAt, String readMessageId, int cap);
+
+    // countGroupUnread for several memberships in one aggregation, each capped the same way.
+    // Keyed by groupId; groups with nothing unread are left out.
+    Map<String, Long> countGroupsUnread(Collection<GroupMember> memberships, int cap);
+
+    // Flag the given messages as delivered when receiverId is their receiver.
+    // Returns those messages with only id and senderId, for routing receipts back to the senders.
+    List<Message> acknowledge(String receiverId, Collection<String> messageIds);
+
+    // Flag those of the given messages from senderId to receiverId that are still unread as read,
+    // and return how many changed, which is what comes off the unread counter
+    long markRead(String receiverId, String senderId, Collection<String> messageIds);
+
+    // Set conversationId on direct messages written before it existed, batchSize updates per
+    // bulk write. Safe to rerun; returns how many messages were updated.
+    long backfillConversationIds(int batchSize);
+
+    // Whether any direct message is still waiting for the backfill
+    boolean hasMissingConversationIds();
+}
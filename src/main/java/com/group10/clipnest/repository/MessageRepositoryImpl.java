@@ -0,0 +1,272 @@
+package com.group10.clipnest.repository;
+
+import com.group10.clipnest.model.GroupMember;
+import com.group10.clipnest.model.Message;
+import com.group10.clipnest.payload.ConversationSummary;
+import com.group10.clipnest.payload.PageCursor;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.UnionWithOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class MessageRepositoryImpl implements MessageRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Message> findConversationPage(String userId1, String userId2, PageCursor before, PageCursor after, int limit,
+                                              boolean byConversationId) {
+        List<Message> messages = mongoTemplate.find(
+                conversationPageQuery(userId1, userId2, before, after, limit, byConversationId), Message.class);
+        if (after == null) {
+            Collections.reverse(messages);
+        }
+        return messages;
+    }
+
+    @Override
+    public List<Message> findGroupPage(String groupId, PageCursor before, PageCursor after, int limit) {
+        // Walks the (groupId, timestamp, _id) index in either direction
+        Query query = keysetPageQuery(Criteria.where("groupId").is(groupId), before, after, limit);
+        List<Message> messages = mongoTemplate.find(query, Message.class);
+        if (after == null) {
+            Collections.reverse(messages);
+        }
+        return messages;
+    }
+
+    @Override
+    public long countGroupUnread(String groupId, String memberId, LocalDateTime readAt, String readMessageId, int cap) {
+        // Bounded so a long-idle member of a busy group costs at most cap index entries
+        return mongoTemplate.count(new Query(groupUnreadCriteria(groupId, memberId, readAt, readMessageId)).limit(cap),
+                Message.class);
+    }
+
+    @Override
+    public Map<String, Long> countGroupsUnread(Collection<GroupMember> memberships, int cap) {
+        // One capped branch per membership, the first run directly and the rest through $unionWith,
+        // so each group still costs at most cap index entries but the page is one round trip
+        List<AggregationOperation> stages = new ArrayList<>();
+        for (GroupMember membership : memberships) {
+            List<AggregationOperation> branch = List.of(
+                    Aggregation.match(groupUnreadCriteria(membership.getGroupId(), membership.getMemberId(),
+                            membership.getLastReadAt(), membership.getLastReadMessageId())),
+                    Aggregation.limit(cap),
+                    Aggregation.project("groupId"));
+            if (stages.isEmpty()) {
+                stages.addAll(branch);
+            } else {
+                stages.add(UnionWithOperation.unionWith("messages").pipeline(branch).mapFieldsTo(Message.class));
+            }
+        }
+        if (stages.isEmpty()) {
+            return Map.of();
+        }
+        stages.add(Aggregation.group("groupId").count().as("count"));
+
+        Map<String, Long> counts = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(Aggregation.newAggregation(Message.class, stages), Document.class)) {
+            counts.put(row.getString("_id"), ((Number) row.get("count")).longValue());
+        }
+        return counts;
+    }
+
+    @Override
+    public Stream<ConversationSummary> streamConversationSummaries(String userId) {
+        List<AggregationOperation> stages = new ArrayList<>();
+
+        // Both $or branches are served by the (senderId, timestamp) and (receiverId, timestamp) indexes
+        stages.add(Aggregation.stage(new Document("$match", new Document("$or", List.of(
+                new Document("senderId", userId),
+                new Document("receiverId", userId)))
+                .append("isGroupMessage", false))));
+        stages.add(Aggregation.stage(new Document("$sort", new Document("timestamp", -1))));
+
+        // Sorted input makes $first the latest message of each conversation
+        Document isSender = new Document("$eq", List.of("$senderId", userId));
+        Document isUnreadForUser = new Document("$and", List.of(
+                new Document("$eq", List.of("$receiverId", userId)),
+                new Document("$eq", List.of("$isRead", false))));
+        stages.add(Aggregation.stage(new Document("$group", new Document()
+                .append("_id", new Document("$cond", List.of(isSender, "$receiverId", "$senderId")))
+                .append("partnerUsername", new Document("$first",
+                        new Document("$cond", List.of(isSender, "$receiverUsername", "$senderUsername"))))
+                .append("lastMessage", new Document("$first", "$content"))
+                .append("lastSenderId", new Document("$first", "$senderId"))
+                .append("lastTimestamp", new Document("$first", "$timestamp"))
+                .append("unreadCount", new Document("$sum", new Document("$cond", List.of(isUnreadForUser, 1, 0)))))));
+        stages.add(Aggregation.stage(new Document("$project", new Document()
+                .append("_id", 0)
+                .append("partnerId", "$_id")
+                .append("partnerUsername", 1)
+                .append("lastMessage", 1)
+                .append("lastSenderId", 1)
+                .append("lastTimestamp", 1)
+                .append("unreadCount", 1))));
+
+        // A heavy user's sort may pass the in-memory limit; this only runs in the background rebuild
+        Aggregation aggregation = Aggregation.newAggregation(stages)
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        return mongoTemplate.aggregateStream(aggregation, "messages", ConversationSummary.class);
+    }
+
+    @Override
+    public long markConversationRead(String receiverId, String senderId, LocalDateTime upToTimestamp, String upToMessageId) {
+        return mongoTemplate.updateMulti(unreadUpToQuery(receiverId, senderId, upToTimestamp, upToMessageId),
+                        new Update().set("isRead", true), Message.class)
+                .getModifiedCount();
+    }
+
+    @Override
+    public List<Message> acknowledge(String receiverId, Collection<String> messageIds) {
+        Criteria criteria = Criteria.where("id").in(messageIds).and("receiverId").is(receiverId);
+        mongoTemplate.updateMulti(new Query(criteria), new Update().set("isDelivered", true), Message.class);
+
+        Query senders = new Query(criteria);
+        senders.fields().include("senderId");
+        return mongoTemplate.find(senders, Message.class);
+    }
+
+    @Override
+    public long markRead(String receiverId, String senderId, Collection<String> messageIds) {
+        Query unread = new Query(Criteria.where("id").in(messageIds)
+                .and("receiverId").is(receiverId).and("senderId").is(senderId).and("isRead").is(false));
+        return mongoTemplate.updateMulti(unread, new Update().set("isRead", true), Message.class).getModifiedCount();
+    }
+
+    @Override
+    public boolean hasMissingConversationIds() {
+        return mongoTemplate.exists(new Query(missingConversationId()), Message.class);
+    }
+
+    @Override
+    public long backfillConversationIds(int batchSize) {
+        Query missing = new Query(missingConversationId());
+        missing.fields().include("senderId", "receiverId");
+
+        long updated = 0;
+        try (Stream<Message> messages = mongoTemplate.stream(missing, Message.class)) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Message.class);
+            int pending = 0;
+            Iterator<Message> iterator = messages.iterator();
+            while (iterator.hasNext()) {
+                Message message = iterator.next();
+                bulk.updateOne(new Query(Criteria.where("id").is(message.getId())),
+                        new Update().set("conversationId", Message.conversationIdOf(message.getSenderId(), message.getReceiverId())));
+                if (++pending == batchSize) {
+                    bulk.execute();
+                    updated += pending;
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Message.class);
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                bulk.execute();
+                updated += pending;
+            }
+        }
+        return updated;
+    }
+
+    // One page of a direct conversation, newest first when paging backward (no after cursor).
+    // Shared with ReactiveMessageRepositoryImpl so both stacks run the same query.
+    static Query conversationPageQuery(String userId1, String userId2, PageCursor before, PageCursor after, int limit,
+                                       boolean byConversationId) {
+        if (byConversationId) {
+            // Both directions share one conversationId, so this is a single range of the
+            // (conversationId, timestamp, _id) index instead of two merged sender/receiver branches
+            return keysetPageQuery(Criteria.where("conversationId").is(Message.conversationIdOf(userId1, userId2)),
+                    before, after, limit);
+        }
+        // Until every message has a conversationId: each $or branch carries the full predicate,
+        // cursor included, so both walk the (senderId, receiverId, timestamp, _id) index and are merge-sorted
+        boolean forward = after != null;
+        PageCursor cursor = forward ? after : before;
+        return keysetOrder(new Query(new Criteria().orOperator(
+                pastCursor(Criteria.where("senderId").is(userId1).and("receiverId").is(userId2), cursor, forward),
+                pastCursor(Criteria.where("senderId").is(userId2).and("receiverId").is(userId1), cursor, forward))),
+                forward, limit);
+    }
+
+    private static Criteria groupUnreadCriteria(String groupId, String memberId, LocalDateTime readAt, String readMessageId) {
+        Criteria criteria = Criteria.where("groupId").is(groupId).and("senderId").ne(memberId);
+        if (readAt != null) {
+            criteria = criteria.and("timestamp").gte(readAt).orOperator(
+                    Criteria.where("timestamp").gt(readAt),
+                    Criteria.where("id").gt(readMessageId));
+        }
+        return criteria;
+    }
+
+    // Direct messages the backfill can and still has to give a conversationId; isGroupMessage
+    // matches the direct_conversation_id partial index, so this never walks group messages
+    private static Criteria missingConversationId() {
+        return Criteria.where("conversationId").is(null)
+                .and("isGroupMessage").is(false)
+                .and("senderId").ne(null)
+                .and("receiverId").ne(null);
+    }
+
+    // Unread messages from sender to receiver, optionally only up to a (timestamp, id) watermark
+    static Query unreadUpToQuery(String receiverId, String senderId, LocalDateTime upToTimestamp, String upToMessageId) {
+        Criteria criteria = Criteria.where("receiverId").is(receiverId)
+                .and("senderId").is(senderId)
+                .and("isRead").is(false);
+        if (upToTimestamp != null) {
+            criteria = criteria.and("timestamp").lte(upToTimestamp);
+            if (upToMessageId != null) {
+                criteria = criteria.orOperator(
+                        Criteria.where("timestamp").lt(upToTimestamp),
+                        Criteria.where("id").lte(upToMessageId));
+            }
+        }
+        return new Query(criteria);
+    }
+
+    // Messages matching criteria strictly past the cursor in (timestamp, _id) order:
+    // oldest first after an after cursor, newest first otherwise
+    private static Query keysetPageQuery(Criteria criteria, PageCursor before, PageCursor after, int limit) {
+        boolean forward = after != null;
+        return keysetOrder(new Query(pastCursor(criteria, forward ? after : before, forward)), forward, limit);
+    }
+
+    private static Criteria pastCursor(Criteria criteria, PageCursor cursor, boolean forward) {
+        if (cursor == null) {
+            return criteria;
+        }
+        return forward
+                ? criteria.and("timestamp").gte(cursor.getTimestamp()).orOperator(
+                        Criteria.where("timestamp").gt(cursor.getTimestamp()),
+                        Criteria.where("id").gt(cursor.getId()))
+                : criteria.and("timestamp").lte(cursor.getTimestamp()).orOperator(
+                        Criteria.where("timestamp").lt(cursor.getTimestamp()),
+                        Criteria.where("id").lt(cursor.getId()));
+    }
+
+    private static Query keysetOrder(Query query, boolean forward, int limit) {
+        return query
+                .with(forward
+                        ? Sort.by(Sort.Order.asc("timestamp"), Sort.Order.asc("id"))
+                        : Sort.by(Sort.Order.desc("timestamp"), Sort.Order.desc("id")))
+                .limit(limit);
+    }
+}
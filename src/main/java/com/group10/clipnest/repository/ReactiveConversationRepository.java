@@ -0,0 +1,8 @@
+package com.group10.clipnest.repository;
+
+import com.group10.clipnest.model.Conversation;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+// Non-blocking counterpart of ConversationRepository for the reactive messages API
+public interface ReactiveConversationRepository extends ReactiveMongoRepository<Conversation, String>, ReactiveConversationRepositoryCustom {
+}
@@ -0,0 +1,15 @@
+package com.group10.clipnest.repository;
+
+import com.group10.clipnest.model.Conversation;
+import com.group10.clipnest.payload.PageCursor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveConversationRepositoryCustom {
+
+    // Same query as ConversationRepository.findInboxPage
+    Flux<Conversation> findInboxPage(String ownerId, PageCursor before, int limit);
+
+    // Same update as ConversationRepository.decrementUnreadCount
+    Mono<Long> decrementUnreadCount(String ownerId, String partnerId, long count);
+}
@@ -0,0 +1,42 @@
+package com.group10.clipnest.repository;
+
+import com.group10.clipnest.model.Conversation;
+import com.group10.clipnest.payload.PageCursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public class ReactiveConversationRepositoryImpl implements ReactiveConversationRepositoryCustom {
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Flux<Conversation> findInboxPage(String ownerId, PageCursor before, int limit) {
+        return reactiveMongoTemplate.find(ConversationRepositoryImpl.inboxPageQuery(ownerId, before, limit), Conversation.class);
+    }
+
+    @Override
+    public Mono<Long> decrementUnreadCount(String ownerId, String partnerId, long count) {
+        if (count <= 0) {
+            return reactiveMongoTemplate.findOne(ConversationRepositoryImpl.pairQuery(ownerId, partnerId), Conversation.class)
+                    .map(Conversation::getUnreadCount)
+                    .defaultIfEmpty(0L);
+        }
+        // Same guarded rounds as ConversationRepositoryImpl.decrementUnreadCount
+        return Mono.defer(() -> reactiveMongoTemplate.findAndModify(
+                                ConversationRepositoryImpl.unreadAtLeast(ownerId, partnerId, count),
+                                new Update().inc("unreadCount", -count), FindAndModifyOptions.options().returnNew(true), Conversation.class)
+                        .map(Conversation::getUnreadCount)
+                        .switchIfEmpty(reactiveMongoTemplate.updateFirst(
+                                        ConversationRepositoryImpl.unreadBelow(ownerId, partnerId, count),
+                                        new Update().set("unreadCount", 0L), Conversation.class)
+                                .filter(result -> result.getMatchedCount() > 0)
+                                .map(result -> 0L)))
+                .repeatWhenEmpty(repeats -> repeats.take(ConversationRepositoryImpl.DECREMENT_ATTEMPTS - 1))
+                .defaultIfEmpty(0L);
+    }
+}
@@ -0,0 +1,8 @@
+package com.group10.clipnest.repository;
+
+import com.group10.clipnest.model.Message;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+// Non-blocking counterpart of MessageRepository for the reactive messages API
+public interface ReactiveMessageRepository extends ReactiveMongoRepository<Message, String>, ReactiveMessageRepositoryCustom {
+}
@@ -0,0 +1,19 @@
+package com.group10.clipnest.repository;
+
+import com.group10.clipnest.model.Message;
+import com.group10.clipnest.payload.PageCursor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+public interface ReactiveMessageRepositoryCustom {
+
+    // Same query as MessageRepository.findConversationPage, streamed as it comes off the cursor:
+    // newest first when paging backward, oldest first after an after cursor
+    Flux<Message> streamConversation(String userId1, String userId2, PageCursor before, PageCursor after, int limit,
+                                     boolean byConversationId);
+
+    // Same update as MessageRepository.markConversationRead
+    Mono<Long> markConversationRead(String receiverId, String senderId, LocalDateTime upToTimestamp, String upToMessageId);
+}
@@ -0,0 +1,34 @@
+package com.group10.clipnest.repository;
+
+import com.group10.clipnest.model.Message;
+import com.group10.clipnest.payload.PageCursor;
+import com.mongodb.client.result.UpdateResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+public class ReactiveMessageRepositoryImpl implements ReactiveMessageRepositoryCustom {
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Flux<Message> streamConversation(String userId1, String userId2, PageCursor before, PageCursor after, int limit,
+                                            boolean byConversationId) {
+        return reactiveMongoTemplate.find(
+                MessageRepositoryImpl.conversationPageQuery(userId1, userId2, before, after, limit, byConversationId),
+                Message.class);
+    }
+
+    @Override
+    public Mono<Long> markConversationRead(String receiverId, String senderId, LocalDateTime upToTimestamp, String upToMessageId) {
+        return reactiveMongoTemplate.updateMulti(
+                        MessageRepositoryImpl.unreadUpToQuery(receiverId, senderId, upToTimestamp, upToMessageId),
+                        new Update().set("isRead", true), Message.class)
+                .map(UpdateResult::getModifiedCount);
+    }
+}
@@ -0,0 +1,13 @@
+package com.group10.clipnest.repository;
+
+import com.group10.clipnest.model.User;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+// Non-blocking lookups the reactive messages API needs; same projections as UserRepository
+public interface ReactiveUserRepository extends ReactiveMongoRepository<User, String> {
+
+    @Query(value = "{ 'username': ?0 }", fields = UserRepository.PROFILE_FIELDS)
+    Mono<User> findProfileByUsername(String username);
+}
@@ -1,14 +1,87 @@
 package com.group10.clipnest.repository;
 
 import com.group10.clipnest.model.User;
+import com.group10.clipnest.security.UserPrincipal;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UserRepository extends MongoRepository<User, String> {
+
+    // What profile pages, lookups by username and list rows need: never the password or legacy follow sets
+    String PROFILE_FIELDS = "{ 'email': 1, 'username': 1, 'fullName': 1, 'followersCount': 1, 'followingCount': 1 }";
+
+    // Follow suggestion candidates: list fields plus interests for overlap scoring
+    String SUGGESTION_FIELDS = "{ 'email': 1, 'username': 1, 'fullName': 1, 'followersCount': 1, 'interests': 1 }";
+
   Optional<User> findByEmail(String email);
   Optional<User> findByUsername(String username);
 
-    List<User> findByUsernameContainingIgnoreCase(String query);
+    @Query(value = "{ 'username': ?0 }", fields = PROFILE_FIELDS)
+    Optional<User> findProfileByUsername(String username);
+
+    // Profile fields only: skips the password and the followers/following sets
+    @Query(value = "{ 'email': ?0 }", fields = "{ 'email': 1, 'username': 1, 'fullName': 1, 'birthdate': 1, 'gender': 1, 'interests': 1 }")
+    Optional<UserPrincipal> findPrincipalByEmail(String email);
+
+    // Usernames starting with the given prefix, as a left-anchored regex so it stays a bounded scan of the username index
+    @Query(value = "{ 'username': { $regex: ?0 } }", fields = PROFILE_FIELDS)
+    List<User> findProfilesByUsernameRegex(String anchoredPattern, Limit limit);
+
+    // Swap in a rehashed password, unless the password changed since the old hash was read
+    @Query("{ 'email': ?0, 'password': ?1 }")
+    @Update("{ '$set': { 'password': ?2 } }")
+    long updatePasswordHash(String email, String currentHash, String newHash);
+
+    // Just the follow counters, never the rest of the document
+    @Query(value = "{ 'email': ?0 }", fields = "{ 'email': 1, 'followersCount': 1, 'followingCount': 1 }")
+    Optional<User> findFollowCountsByEmail(String email);
+
+    // One batched lookup for a page of follow list entries, with only the fields the list shows
+    @Query(value = "{ 'email': { $in: ?0 } }", fields = "{ 'email': 1, 'username': 1, 'fullName': 1, 'followersCount': 1 }")
+    List<User> findFollowListEntriesByEmailIn(Collection<String> emails);
+
+    // Fresh profile rows for a handful of search hits
+    @Query(value = "{ 'email': { $in: ?0 } }", fields = PROFILE_FIELDS)
+    List<User> findProfilesByEmailIn(Collection<String> emails);
+
+    // Batched lookup of the users named in one group membership request
+    @Query(value = "{ 'username': { $in: ?0 } }", fields = PROFILE_FIELDS)
+    List<User> findProfilesByUsernameIn(Collection<String> usernames);
+
+    @Query(value = "{ 'email': { $in: ?0 } }", fields = SUGGESTION_FIELDS)
+    List<User> findSuggestionProfilesByEmailIn(Collection<String> emails);
+
+    // Most followed users sharing any of the interests, via the (interests, followersCount) index
+    @Query(value = "{ 'interests': { $in: ?0 } }", fields = SUGGESTION_FIELDS, sort = "{ 'followersCount': -1 }")
+    List<User> findMostFollowedByInterestsIn(Collection<String> interests, Limit limit);
+
+    @Query(value = "{}", fields = SUGGESTION_FIELDS, sort = "{ 'followersCount': -1 }")
+    List<User> findMostFollowed(Limit limit);
+
+    // Keyset pages of the user directory in _id order: the first page, then everything after a given id
+    @Query(value = "{}", fields = PROFILE_FIELDS, sort = "{ '_id': 1 }")
+    List<User> findProfilesPage(Limit limit);
+
+    @Query(value = "{ '_id': { $gt: ?0 } }", fields = PROFILE_FIELDS, sort = "{ '_id': 1 }")
+    List<User> findProfilesPageAfter(ObjectId after, Limit limit);
+
+    // Cursor-backed stream of every profile in _id order, for streaming the directory; close it when done
+    @Query(value = "{}", fields = PROFILE_FIELDS, sort = "{ '_id': 1 }")
+    Stream<User> streamProfiles();
+
+    // Cursor-backed stream of the fields the search index needs, for (re)loading it; close it when done
+    @Query(value = "{}", fields = "{ 'email': 1, 'username': 1, 'fullName': 1, 'followersCount': 1 }")
+    Stream<User> streamSearchFields();
+
+    // Cursor-backed stream of every user's email, for batch jobs; close it when done
+    @Query(value = "{}", fields = "{ 'email': 1 }")
+    Stream<User> streamAllEmails();
 }
\ No newline at end of file
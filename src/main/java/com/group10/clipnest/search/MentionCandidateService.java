@@ -0,0 +1,54 @@
+package com.group10.clipnest.search;
+
+import com.group10.clipnest.config.CacheConfig;
+import com.group10.clipnest.model.Follow;
+import com.group10.clipnest.repository.FollowRepository;
+import com.group10.clipnest.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class MentionCandidateService {
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${clipnest.mentions.candidate-limit:2000}")
+    private int candidateLimit;
+
+    // Newest follow edges in each direction, hydrated with the fields the index matches on
+    @Cacheable(cacheNames = CacheConfig.MENTION_CANDIDATES)
+    public MentionCandidates load(String email) {
+        List<Follow> outgoing = followRepository.findRecentFollowees(email, Limit.of(candidateLimit));
+        List<Follow> incoming = followRepository.findRecentFollowers(email, Limit.of(candidateLimit));
+
+        Set<String> following = outgoing.stream().map(Follow::getFolloweeId).collect(Collectors.toSet());
+        Set<String> followers = incoming.stream().map(Follow::getFollowerId).collect(Collectors.toSet());
+
+        Set<String> neighbours = new HashSet<>(following);
+        neighbours.addAll(followers);
+        List<SearchableUser> users = neighbours.isEmpty() ? List.of()
+                : userRepository.findFollowListEntriesByEmailIn(neighbours).stream()
+                        .map(UserSearchIndexLoader::toSearchable)
+                        .collect(Collectors.toList());
+
+        boolean complete = outgoing.size() < candidateLimit && incoming.size() < candidateLimit;
+        return new MentionCandidates(users, following, followers, complete);
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.MENTION_CANDIDATES)
+    public void evict(String email) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.group10.clipnest.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Set;
+
+// A user's follow neighbourhood as seen by @mention typeahead
+@Getter
+@AllArgsConstructor
+public class MentionCandidates {
+    private final List<SearchableUser> users;
+    private final Set<String> following;  // Emails the user follows
+    private final Set<String> followers;  // Emails following the user
+    // False when an edge list hit the candidate limit, so absence from the sets proves nothing
+    private final boolean complete;
+}
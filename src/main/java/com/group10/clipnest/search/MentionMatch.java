@@ -0,0 +1,14 @@
+package com.group10.clipnest.search;
+
+import com.group10.clipnest.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// One typeahead hit: fresh profile fields plus the caller's relation to that user
+@Getter
+@AllArgsConstructor
+public class MentionMatch {
+    private final User user;
+    private final boolean following;
+    private final boolean follower;
+}
@@ -0,0 +1,109 @@
+package com.group10.clipnest.search;
+
+import com.group10.clipnest.model.User;
+import com.group10.clipnest.repository.FollowRepository;
+import com.group10.clipnest.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * @mention typeahead. Matches among the caller's cached follow neighbourhood come first
+ * (mutual follows, then users they follow, then their followers); the rest of the page is
+ * filled from the global search index. Every lookup is timed into a latency histogram.
+ */
+@Service
+public class MentionTypeahead {
+
+    @Autowired
+    private UserSearchIndex userSearchIndex;
+
+    @Autowired
+    private MentionCandidateService mentionCandidateService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    private final Timer latency;
+
+    public MentionTypeahead(MeterRegistry meterRegistry) {
+        this.latency = Timer.builder("clipnest.mentions.typeahead")
+                .description("Latency of @mention typeahead lookups")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public List<MentionMatch> suggest(String callerEmail, String q, int limit) {
+        return latency.record(() -> lookup(callerEmail, q, limit));
+    }
+
+    private List<MentionMatch> lookup(String callerEmail, String q, int limit) {
+        String prefix = SearchableUser.normalize(q);
+        if (prefix.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        MentionCandidates candidates = mentionCandidateService.load(callerEmail);
+        List<SearchableUser> ranked = candidates.getUsers().stream()
+                .filter(user -> user.matches(prefix) && !user.getEmail().equals(callerEmail))
+                .sorted(Comparator.comparingInt((SearchableUser user) -> proximity(candidates, user.getEmail()))
+                        .thenComparingInt(user -> UserSearchIndex.tier(user, prefix))
+                        .thenComparing(SearchableUser::getFollowersCount, Comparator.reverseOrder()))
+                .limit(limit)
+                .collect(Collectors.toCollection(ArrayList::new));
+
+        if (ranked.size() < limit) {
+            Set<String> taken = ranked.stream().map(SearchableUser::getEmail).collect(Collectors.toSet());
+            ranked.addAll(userSearchIndex.search(q, limit - ranked.size(),
+                    user -> !user.getEmail().equals(callerEmail) && !taken.contains(user.getEmail())));
+        }
+        if (ranked.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<String> emails = ranked.stream().map(SearchableUser::getEmail).collect(Collectors.toList());
+        Set<String> following = new HashSet<>(candidates.getFollowing());
+        Set<String> followers = new HashSet<>(candidates.getFollowers());
+        if (!candidates.isComplete()) {
+            // The candidate set was cut off, so check the global hits against the edges directly
+            followRepository.findByFollowerIdAndFolloweeIdIn(callerEmail, emails)
+                    .forEach(follow -> following.add(follow.getFolloweeId()));
+            followRepository.findByFolloweeIdAndFollowerIdIn(callerEmail, emails)
+                    .forEach(follow -> followers.add(follow.getFollowerId()));
+        }
+
+        Map<String, User> profiles = userRepository.findProfilesByEmailIn(emails).stream()
+                .collect(Collectors.toMap(User::getEmail, Function.identity(), (a, b) -> a));
+        List<MentionMatch> matches = new ArrayList<>(emails.size());
+        for (String email : emails) {
+            User profile = profiles.get(email);
+            if (profile != null) {
+                matches.add(new MentionMatch(profile, following.contains(email), followers.contains(email)));
+            }
+        }
+        return matches;
+    }
+
+    // 0 = mutual, 1 = followed by the caller, 2 = follows the caller
+    private static int proximity(MentionCandidates candidates, String email) {
+        boolean following = candidates.getFollowing().contains(email);
+        boolean follower = candidates.getFollowers().contains(email);
+        if (following && follower) {
+            return 0;
+        }
+        return following ? 1 : 2;
+    }
+}
@@ -0,0 +1,75 @@
+package com.group10.clipnest.search;
+
+import lombok.Getter;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * What the search index keeps per user: display fields, the ranking signal and the
+ * normalized terms a query prefix is matched against.
+ */
+@Getter
+public class SearchableUser {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WORD_SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final String email;
+    private final String username;
+    private final String fullName;
+    private final long followersCount;
+
+    private final String normalizedUsername;
+    // Whole username, whole full name and every word of both, normalized
+    private final String[] terms;
+
+    public SearchableUser(String email, String username, String fullName, long followersCount) {
+        this.email = email;
+        this.username = username;
+        this.fullName = fullName;
+        this.followersCount = followersCount;
+        this.normalizedUsername = normalize(username);
+
+        Set<String> termSet = new LinkedHashSet<>();
+        addTerms(termSet, normalizedUsername);
+        addTerms(termSet, normalize(fullName));
+        this.terms = termSet.toArray(new String[0]);
+    }
+
+    // Lower-cased, accent-free, single-spaced form used for both indexing and queries
+    public static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("")
+                .toLowerCase(Locale.ROOT)
+                .trim()
+                .replaceAll("\\s+", " ");
+    }
+
+    public boolean matches(String normalizedPrefix) {
+        for (String term : terms) {
+            if (term.startsWith(normalizedPrefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void addTerms(Set<String> termSet, String normalized) {
+        if (normalized.isEmpty()) {
+            return;
+        }
+        termSet.add(normalized);
+        for (String word : WORD_SEPARATORS.split(normalized)) {
+            if (!word.isEmpty()) {
+                termSet.add(word);
+            }
+        }
+    }
+}
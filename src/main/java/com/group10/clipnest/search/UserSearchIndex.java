@@ -0,0 +1,404 @@
+package com.group10.clipnest.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * In-memory word-prefix index over usernames and full names.
+ *
+ * The bulk of the users live in an immutable snapshot: every normalized term sorted in one
+ * array, so a query is a binary search plus a walk over the matching range. Ranges longer than
+ * max-scan (short prefixes such as "a") are instead walked through a list built with the
+ * snapshot, ordered best first, so the scan can stop once the top K is settled. Users saved since
+ * the snapshot was built sit in a small overlay that shadows their snapshot entries and is
+ * folded into a fresh snapshot in the background once it grows past the merge threshold.
+ */
+@Component
+public class UserSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSearchIndex.class);
+
+    private static final int TIER_EXACT_USERNAME = 0;
+    private static final int TIER_USERNAME_PREFIX = 1;
+    private static final int TIER_OTHER_WORD = 2;
+
+    private final int maxScan;
+    private final int mergeThreshold;
+
+    private volatile Snapshot snapshot;
+    private volatile boolean loaded;
+
+    // email -> latest version of users saved after the snapshot was built
+    private final Map<String, SearchableUser> pending = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean mergeScheduled = new AtomicBoolean();
+    private final ExecutorService mergeExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-search-merge");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public UserSearchIndex(@Value("${clipnest.search.max-scan:100000}") int maxScan,
+                           @Value("${clipnest.search.merge-threshold:10000}") int mergeThreshold) {
+        this.maxScan = maxScan;
+        this.mergeThreshold = mergeThreshold;
+        this.snapshot = Snapshot.build(List.of(), maxScan);
+    }
+
+    // True once a full load has completed; until then only users saved since startup are known
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public int size() {
+        return snapshot.users.length + pending.size();
+    }
+
+    // Replace the whole index; anything saved while the load was running stays in the overlay
+    public void load(Stream<SearchableUser> users) {
+        Map<String, SearchableUser> byEmail = new LinkedHashMap<>();
+        users.forEach(user -> byEmail.put(user.getEmail(), user));
+        synchronized (this) {
+            publish(byEmail);
+        }
+        loaded = true;
+        logger.info("✅ User search index loaded with {} users", snapshot.users.length);
+    }
+
+    public void upsert(SearchableUser user) {
+        pending.put(user.getEmail(), user);
+        if (pending.size() >= mergeThreshold && mergeScheduled.compareAndSet(false, true)) {
+            mergeExecutor.execute(() -> {
+                try {
+                    merge();
+                } finally {
+                    mergeScheduled.set(false);
+                }
+            });
+        }
+    }
+
+    // Fold the overlay into a new snapshot
+    public synchronized void merge() {
+        Map<String, SearchableUser> byEmail = new LinkedHashMap<>();
+        for (SearchableUser user : snapshot.users) {
+            byEmail.put(user.getEmail(), user);
+        }
+        publish(byEmail);
+    }
+
+    /**
+     * Best matches for the query, at most {@code limit} of them, best first. A user matches
+     * when any word of their username or full name starts with the normalized query.
+     *
+     * The matching term range is walked through the snapshot's primitive arrays; a user object
+     * is only dereferenced for entries that would beat the current worst of the top K. A range
+     * longer than max-scan is walked in rank order instead, up to the first entry the top K
+     * rejects, and only scanned in full when a selective filter leaves the top K short.
+     */
+    public List<SearchableUser> search(String query, int limit, Predicate<SearchableUser> filter) {
+        String prefix = SearchableUser.normalize(query);
+        if (prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        TopK top = new TopK(limit, filter);
+
+        Snapshot current = snapshot;
+        int from = lowerBound(current.terms, prefix);
+        int exactEnd = exactEnd(current.terms, prefix, from);
+        int to = prefixEnd(current.terms, prefix, exactEnd);
+        int[] ranked = to - from > maxScan ? current.ranked.get(prefix) : null;
+        boolean settled = false;
+        if (ranked != null) {
+            for (int i : ranked) {
+                int tier = tierAt(current.usernameTerms, i, exactEnd);
+                if (top.wouldReject(tier, current.followers[i])) {
+                    settled = true;
+                    break;
+                }
+                offerSnapshotEntry(top, current, i, tier);
+            }
+            // A filter rejected so many that the list ran out before the top K filled
+            settled = settled || top.isFull();
+        }
+        if (!settled) {
+            for (int i = from; i < to; i++) {
+                int tier = tierAt(current.usernameTerms, i, exactEnd);
+                if (!top.wouldReject(tier, current.followers[i])) {
+                    offerSnapshotEntry(top, current, i, tier);
+                }
+            }
+        }
+        for (SearchableUser user : pending.values()) {
+            if (user.matches(prefix)) {
+                top.offer(user, tier(user, prefix));
+            }
+        }
+        return top.ranked();
+    }
+
+    // Tier of snapshot entry i for a query whose exact-term run ends at exactEnd
+    private static int tierAt(boolean[] usernameTerms, int i, int exactEnd) {
+        return !usernameTerms[i] ? TIER_OTHER_WORD
+                : i < exactEnd ? TIER_EXACT_USERNAME : TIER_USERNAME_PREFIX;
+    }
+
+    // Users in the overlay are offered from there instead
+    private void offerSnapshotEntry(TopK top, Snapshot snapshot, int i, int tier) {
+        SearchableUser user = snapshot.users[snapshot.owners[i]];
+        if (!pending.containsKey(user.getEmail())) {
+            top.offer(user, tier);
+        }
+    }
+
+    // Rank bucket of a user for a normalized prefix; lower is better
+    static int tier(SearchableUser user, String prefix) {
+        String username = user.getNormalizedUsername();
+        if (username.equals(prefix)) {
+            return TIER_EXACT_USERNAME;
+        }
+        return username.startsWith(prefix) ? TIER_USERNAME_PREFIX : TIER_OTHER_WORD;
+    }
+
+    // First position whose term is >= prefix
+    private static int lowerBound(String[] terms, String prefix) {
+        int low = 0;
+        int high = terms.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (terms[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // First position at or after from whose term is not exactly the prefix
+    private static int exactEnd(String[] terms, String prefix, int from) {
+        int low = from;
+        int high = terms.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (terms[mid].equals(prefix)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // First position at or after from whose term no longer starts with the prefix
+    private static int prefixEnd(String[] terms, String prefix, int from) {
+        int low = from;
+        int high = terms.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (terms[mid].startsWith(prefix)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Caller holds the monitor. Publishes a snapshot of the given users with the overlay applied, then
+    // drops the overlay entries it absorbed unless they were replaced again in the meantime.
+    private void publish(Map<String, SearchableUser> byEmail) {
+        Map<String, SearchableUser> applied = new LinkedHashMap<>(pending);
+        byEmail.putAll(applied);
+        snapshot = Snapshot.build(byEmail.values(), maxScan);
+        applied.forEach(pending::remove);
+    }
+
+    private record Scored(SearchableUser user, int tier) {
+
+        // Exact username first, then username prefix, then any other word; popular users first within a tier
+        int compareTo(Scored other) {
+            if (tier != other.tier) {
+                return Integer.compare(tier, other.tier);
+            }
+            if (user.getFollowersCount() != other.user.getFollowersCount()) {
+                return Long.compare(other.user.getFollowersCount(), user.getFollowersCount());
+            }
+            return user.getNormalizedUsername().compareTo(other.user.getNormalizedUsername());
+        }
+    }
+
+    // Bounded best-K with one entry per user, keeping the best tier a user was found under
+    private static final class TopK {
+
+        private final int limit;
+        private final Predicate<SearchableUser> filter;
+        // Worst candidate at the head so it can be evicted in O(log k)
+        private final PriorityQueue<Scored> heap;
+        private final Map<String, Scored> byEmail = new HashMap<>();
+
+        TopK(int limit, Predicate<SearchableUser> filter) {
+            this.limit = limit;
+            this.filter = filter;
+            this.heap = new PriorityQueue<>(limit + 1, (a, b) -> b.compareTo(a));
+        }
+
+        boolean isFull() {
+            return heap.size() >= limit;
+        }
+
+        // Cheap pre-check on the primitive ranking fields; ties are left to offer()
+        boolean wouldReject(int tier, long followersCount) {
+            if (heap.size() < limit) {
+                return false;
+            }
+            Scored worst = heap.peek();
+            return tier > worst.tier()
+                    || (tier == worst.tier() && followersCount < worst.user().getFollowersCount());
+        }
+
+        void offer(SearchableUser user, int tier) {
+            Scored candidate = new Scored(user, tier);
+            Scored existing = byEmail.get(user.getEmail());
+            if (existing != null) {
+                if (candidate.compareTo(existing) < 0) {
+                    heap.remove(existing);
+                    heap.add(candidate);
+                    byEmail.put(user.getEmail(), candidate);
+                }
+                return;
+            }
+            if (filter != null && !filter.test(user)) {
+                return;
+            }
+            if (heap.size() < limit) {
+                heap.add(candidate);
+                byEmail.put(user.getEmail(), candidate);
+            } else if (candidate.compareTo(heap.peek()) < 0) {
+                byEmail.remove(heap.poll().user().getEmail());
+                heap.add(candidate);
+                byEmail.put(user.getEmail(), candidate);
+            }
+        }
+
+        List<SearchableUser> ranked() {
+            List<Scored> ranked = new ArrayList<>(heap);
+            ranked.sort(Scored::compareTo);
+            List<SearchableUser> results = new ArrayList<>(ranked.size());
+            for (Scored scored : ranked) {
+                results.add(scored.user());
+            }
+            return results;
+        }
+    }
+
+    private record TermRef(String term, int owner, boolean username) {
+    }
+
+    // Terms sorted once, with the ranking inputs copied next to them so a scan stays in flat arrays
+    private static final class Snapshot {
+
+        private final SearchableUser[] users;
+        private final String[] terms;            // sorted
+        private final int[] owners;              // owners[i] indexes users for terms[i]
+        private final boolean[] usernameTerms;   // terms[i] is the owner's whole username
+        private final long[] followers;          // the owner's follower count
+        // prefix -> its best maxScan positions, best first, for every prefix matching more than maxScan terms
+        private final Map<String, int[]> ranked;
+
+        private Snapshot(SearchableUser[] users, String[] terms, int[] owners, boolean[] usernameTerms, long[] followers,
+                         Map<String, int[]> ranked) {
+            this.users = users;
+            this.terms = terms;
+            this.owners = owners;
+            this.usernameTerms = usernameTerms;
+            this.followers = followers;
+            this.ranked = ranked;
+        }
+
+        static Snapshot build(Collection<SearchableUser> source, int maxScan) {
+            SearchableUser[] users = source.toArray(new SearchableUser[0]);
+            List<TermRef> refs = new ArrayList<>(users.length * 4);
+            for (int owner = 0; owner < users.length; owner++) {
+                String username = users[owner].getNormalizedUsername();
+                for (String term : users[owner].getTerms()) {
+                    refs.add(new TermRef(term, owner, term.equals(username)));
+                }
+            }
+            TermRef[] sorted = refs.toArray(new TermRef[0]);
+            Arrays.parallelSort(sorted, Comparator.comparing(TermRef::term));
+
+            String[] terms = new String[sorted.length];
+            int[] owners = new int[sorted.length];
+            boolean[] usernameTerms = new boolean[sorted.length];
+            long[] followers = new long[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                terms[i] = sorted[i].term();
+                owners[i] = sorted[i].owner();
+                usernameTerms[i] = sorted[i].username();
+                followers[i] = users[sorted[i].owner()].getFollowersCount();
+            }
+            Map<String, int[]> ranked = new HashMap<>();
+            rankLongRanges(terms, usernameTerms, followers, maxScan, 0, 0, terms.length, ranked);
+            return new Snapshot(users, terms, owners, usernameTerms, followers, ranked);
+        }
+
+        // Splits [from, to), whose terms share their first depth chars, by the next char and ranks
+        // every child range longer than maxScan, then its children. A range only gets that long
+        // if its parent did, so every such prefix is reached.
+        private static void rankLongRanges(String[] terms, boolean[] usernameTerms, long[] followers, int maxScan,
+                                           int depth, int from, int to, Map<String, int[]> ranked) {
+            int i = from;
+            while (i < to) {
+                if (terms[i].length() <= depth) {
+                    i++;
+                    continue;
+                }
+                String prefix = terms[i].substring(0, depth + 1);
+                int end = prefixEnd(terms, prefix, i);
+                if (end - i > maxScan) {
+                    ranked.put(prefix, rank(terms, usernameTerms, followers, maxScan, prefix, i, end));
+                    rankLongRanges(terms, usernameTerms, followers, maxScan, depth + 1, i, end, ranked);
+                }
+                i = end;
+            }
+        }
+
+        // The best maxScan positions of [from, to) in search order for this prefix: by tier, then
+        // most followed. A search whose filter rejects too many of them falls back to a full scan.
+        private static int[] rank(String[] terms, boolean[] usernameTerms, long[] followers, int maxScan,
+                                  String prefix, int from, int to) {
+            int exactEnd = exactEnd(terms, prefix, from);
+            Integer[] positions = new Integer[to - from];
+            for (int i = from; i < to; i++) {
+                positions[i - from] = i;
+            }
+            Arrays.sort(positions, Comparator
+                    .comparingInt((Integer i) -> tierAt(usernameTerms, i, exactEnd))
+                    .thenComparing(i -> followers[i], Comparator.reverseOrder()));
+            int[] best = new int[maxScan];
+            for (int i = 0; i < maxScan; i++) {
+                best[i] = positions[i];
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.group10.clipnest.search;
+
+import com.group10.clipnest.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+// Keeps the search index current on signup and profile changes saved through the repository
+@Component
+public class UserSearchIndexListener extends AbstractMongoEventListener<User> {
+
+    @Autowired
+    private UserSearchIndex userSearchIndex;
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<User> event) {
+        User user = event.getSource();
+        if (user.getEmail() != null) {
+            userSearchIndex.upsert(UserSearchIndexLoader.toSearchable(user));
+        }
+    }
+}
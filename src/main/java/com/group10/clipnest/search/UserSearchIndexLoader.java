@@ -0,0 +1,52 @@
+package com.group10.clipnest.search;
+
+import com.group10.clipnest.model.User;
+import com.group10.clipnest.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.stream.Stream;
+
+/**
+ * Fills the search index from Mongo once the app is up, on a background thread, and reloads it
+ * periodically. Follower counts change through $inc without save events, so the reload is what
+ * keeps the popularity ranking fresh.
+ */
+@Component
+public class UserSearchIndexLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSearchIndexLoader.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserSearchIndex userSearchIndex;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread loadThread = new Thread(this::reload, "user-search-load");
+        loadThread.setDaemon(true);
+        loadThread.start();
+    }
+
+    @Scheduled(cron = "${clipnest.search.reload-cron:0 0 * * * *}")
+    public void reload() {
+        long started = System.currentTimeMillis();
+        try (Stream<User> users = userRepository.streamSearchFields()) {
+            userSearchIndex.load(users.filter(user -> user.getEmail() != null).map(UserSearchIndexLoader::toSearchable));
+            logger.info("✅ User search index reloaded in {} ms", System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            logger.warn("❌ Could not load the user search index: {}", e.getMessage());
+        }
+    }
+
+    static SearchableUser toSearchable(User user) {
+        return new SearchableUser(user.getEmail(), user.getUsername(), user.getFullName(), user.getFollowersCount());
+    }
+}
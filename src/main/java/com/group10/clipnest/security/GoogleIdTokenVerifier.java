@@ -0,0 +1,195 @@
+package com.group10.clipnest.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.UrlResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.net.URLConnection;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Verifies Google ID tokens locally against Google's published signing keys instead of asking
+ * the tokeninfo endpoint on every sign-in. The key set is read from jwks-location (Google's
+ * certs URL, or a file: / classpath: stand-in for tests and offline setups), cached, refreshed
+ * on a schedule, and re-read early when a token names a key we have not seen, which is how a
+ * key rotation shows up. Signature, expiry, issuer and audience are checked on every token;
+ * with no client ids configured there is no audience to accept, so every token is refused.
+ */
+@Component
+public class GoogleIdTokenVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(GoogleIdTokenVerifier.class);
+
+    private static final Set<String> ISSUERS = Set.of("accounts.google.com", "https://accounts.google.com");
+
+    // An unknown key id re-reads the key set at most this often, so junk tokens cannot hammer Google
+    private static final long MIN_REFRESH_INTERVAL_MS = 60_000;
+
+    private final ResourceLoader resourceLoader;
+    private final ObjectMapper objectMapper;
+    private final String jwksLocation;
+    private final Set<String> clientIds;
+    private final int timeoutMs;
+    private final JwtParser parser;
+
+    // Key id -> RSA public key, replaced wholesale on every refresh
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private volatile long lastRefreshAt;
+
+    public GoogleIdTokenVerifier(ResourceLoader resourceLoader,
+                                 ObjectMapper objectMapper,
+                                 @Value("${clipnest.auth.google.jwks-location:https://www.googleapis.com/oauth2/v3/certs}") String jwksLocation,
+                                 @Value("${clipnest.auth.google.client-ids:}") String clientIds,
+                                 @Value("${clipnest.auth.google.jwks-timeout:5s}") Duration timeout,
+                                 @Value("${clipnest.auth.google.clock-skew:60s}") Duration clockSkew) {
+        this.resourceLoader = resourceLoader;
+        this.objectMapper = objectMapper;
+        this.jwksLocation = jwksLocation;
+        this.clientIds = Arrays.stream(clientIds.split(","))
+                .map(String::trim)
+                .filter(id -> !id.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        this.timeoutMs = (int) timeout.toMillis();
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new KeySetResolver())
+                .setAllowedClockSkewSeconds(clockSkew.toSeconds())
+                .build();
+        if (this.clientIds.isEmpty()) {
+            logger.error("❌ clipnest.auth.google.client-ids is not set, every Google sign-in will be refused");
+        }
+    }
+
+    // Claims of a valid ID token, empty when the signature, expiry, issuer or audience is wrong
+    public Optional<Claims> verify(String idToken) {
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(idToken).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.info("❌ Rejected Google ID token: {}", e.getMessage());
+            return Optional.empty();
+        }
+        if (!ISSUERS.contains(claims.getIssuer())) {
+            logger.info("❌ Rejected Google ID token from issuer {}", claims.getIssuer());
+            return Optional.empty();
+        }
+        // A token minted for another OAuth client must not log its holder in here
+        if (!clientIds.contains(claims.getAudience())) {
+            logger.info("❌ Rejected Google ID token for audience {}", claims.getAudience());
+            return Optional.empty();
+        }
+        // Google sends the flag as a boolean, or as a string in some older tokens
+        if ("false".equals(String.valueOf(claims.get("email_verified")))) {
+            logger.info("❌ Rejected Google ID token with an unverified email");
+            return Optional.empty();
+        }
+        return Optional.of(claims);
+    }
+
+    // Warm the key set in the background so the first sign-in does not pay for the fetch
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread loader = new Thread(this::refresh, "google-jwks-init");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    @Scheduled(cron = "${clipnest.auth.google.jwks-refresh-cron:0 0 * * * *}")
+    public synchronized void refresh() {
+        try {
+            Map<String, PublicKey> loaded = parseKeySet(readKeySet());
+            keys = loaded;
+            logger.info("✅ Loaded {} Google signing keys", loaded.size());
+        } catch (Exception e) {
+            // Keep verifying with the keys we already have
+            logger.warn("❌ Could not load Google signing keys from {}: {}", jwksLocation, e.getMessage());
+        } finally {
+            lastRefreshAt = System.currentTimeMillis();
+        }
+    }
+
+    private byte[] readKeySet() throws IOException {
+        Resource resource = resourceLoader.getResource(jwksLocation);
+        if (resource instanceof UrlResource && resource.getURL().getProtocol().startsWith("http")) {
+            URLConnection connection = resource.getURL().openConnection();
+            connection.setConnectTimeout(timeoutMs);
+            connection.setReadTimeout(timeoutMs);
+            try (InputStream in = connection.getInputStream()) {
+                return in.readAllBytes();
+            }
+        }
+        try (InputStream in = resource.getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+
+    // Standard JWKS document; only RSA signing keys are kept, Google publishes nothing else
+    private Map<String, PublicKey> parseKeySet(byte[] json) throws Exception {
+        KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+        Base64.Decoder decoder = Base64.getUrlDecoder();
+        Map<String, PublicKey> parsed = new HashMap<>();
+        for (JsonNode key : objectMapper.readTree(json).path("keys")) {
+            if (!"RSA".equals(key.path("kty").asText()) || "enc".equals(key.path("use").asText())) {
+                continue;
+            }
+            BigInteger modulus = new BigInteger(1, decoder.decode(key.path("n").asText()));
+            BigInteger exponent = new BigInteger(1, decoder.decode(key.path("e").asText()));
+            parsed.put(key.path("kid").asText(), keyFactory.generatePublic(new RSAPublicKeySpec(modulus, exponent)));
+        }
+        return Map.copyOf(parsed);
+    }
+
+    private synchronized PublicKey keyFor(String keyId) {
+        PublicKey key = keys.get(keyId);
+        if (key == null && System.currentTimeMillis() - lastRefreshAt >= MIN_REFRESH_INTERVAL_MS) {
+            refresh();
+            key = keys.get(keyId);
+        }
+        return key;
+    }
+
+    private class KeySetResolver extends SigningKeyResolverAdapter {
+
+        @Override
+        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+            String keyId = header.getKeyId();
+            // Lock-free on the hot path; only a missing key takes the refresh lock
+            PublicKey key = keyId == null ? null : keys.get(keyId);
+            if (key == null && keyId != null) {
+                key = keyFor(keyId);
+            }
+            if (key == null) {
+                throw new JwtException("Unknown Google signing key " + keyId);
+            }
+            return key;
+        }
+    }
+}
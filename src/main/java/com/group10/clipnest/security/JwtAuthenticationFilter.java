@@ -1,13 +1,17 @@
 package com.group10.clipnest.security;
 
-import com.group10.clipnest.model.User;
-import com.group10.clipnest.repository.UserRepository;
+import com.group10.clipnest.config.SecurityConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -15,27 +19,58 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    // Granted to the accounts listed in clipnest.admin.emails, see SecurityConfig
+    public static final String ADMIN_AUTHORITY = "ROLE_ADMIN";
+
     @Autowired
     private JwtUtil jwtUtil;
 
     @Autowired
-    private UserRepository userRepository;
+    private UserPrincipalService userPrincipalService;
+
+    // Accounts allowed to run maintenance endpoints; empty means nobody
+    @Value("${clipnest.admin.emails:}")
+    private Set<String> adminEmails;
+
+    private final Timer authenticated;
+    private final Timer anonymous;
+    private final Timer rejected;
+
+    // Time spent authenticating each request, split by how it ended
+    public JwtAuthenticationFilter(MeterRegistry meterRegistry) {
+        this.authenticated = authTimer(meterRegistry, "authenticated");
+        this.anonymous = authTimer(meterRegistry, "anonymous");
+        this.rejected = authTimer(meterRegistry, "rejected");
+    }
+
+    // The Prometheus scrape token is not a JWT; SecurityConfig checks it
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return SecurityConfig.PROMETHEUS_PATH.equals(request.getServletPath());
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
+        long started = System.nanoTime();
+        Timer outcome = anonymous;
+
         String authHeader = request.getHeader("Authorization");
         String token = null;
         String email = null;
 
         // Extract token from Authorization header
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            outcome = rejected;
             token = authHeader.substring(7);
             try {
                 email = jwtUtil.getEmailFromToken(token);
@@ -46,20 +81,35 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         // Validate token and set authentication
         if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            Optional<User> userOpt = userRepository.findByEmail(email);
-            if (userOpt.isPresent()) {
-                User user = userOpt.get();
+            // Cached, projected lookup: no follow graph or password on the hot path
+            Optional<UserPrincipal> principalOpt = userPrincipalService.loadByEmail(email);
+            if (principalOpt.isPresent()) {
+                UserPrincipal principal = principalOpt.get();
                 
                 // Create authentication token
+                List<GrantedAuthority> authorities = new ArrayList<>();
+                if (adminEmails.contains(principal.getEmail())) {
+                    authorities.add(new SimpleGrantedAuthority(ADMIN_AUTHORITY));
+                }
                 UsernamePasswordAuthenticationToken authToken = 
-                    new UsernamePasswordAuthenticationToken(user, null, new ArrayList<>());
+                    new UsernamePasswordAuthenticationToken(principal, null, authorities);
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 
                 // Set authentication in security context
                 SecurityContextHolder.getContext().setAuthentication(authToken);
+                outcome = authenticated;
             }
         }
 
+        outcome.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
         filterChain.doFilter(request, response);
     }
+
+    private static Timer authTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("clipnest.auth.jwt.filter")
+                .description("Bearer token verification and principal lookup per request")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 } 
\ No newline at end of file
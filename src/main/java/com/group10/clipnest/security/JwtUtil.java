@@ -1,7 +1,12 @@
 package com.group10.clipnest.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.group10.clipnest.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -9,17 +14,38 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtil {
 
     private final SecretKey secretKey;
 
+    // Immutable and thread-safe, so one instance serves every request
+    private final JwtParser parser;
+
+    // SHA-256 of the raw token -> subject and expiry of a token that already passed signature
+    // verification. Only immutable values are kept, never the parsed Claims, so callers cannot
+    // change what the next request sees. Entries expire together with the token itself.
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
     // Inject the Base64-encoded secret from application.properties
-    public JwtUtil(@Value("${jwt.secret}") String secret) {
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${clipnest.jwt.cache.maximum-size:10000}") long cacheMaximumSize) {
         this.secretKey = Keys.hmacShaKeyFor(Base64.getDecoder().decode(secret));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(secretKey)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
     }
 
     public String generateToken(User user) {
@@ -32,12 +58,59 @@ public class JwtUtil {
                 .compact();
     }
 
+    // Parses and checks the signature only on a cache miss
     public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.getSubject();
+        String digest = digest(token);
+        VerifiedToken verified = verifiedTokens.getIfPresent(digest);
+        if (verified != null) {
+            if (verified.expiresAt() == null || verified.expiresAt() > System.currentTimeMillis()) {
+                return verified.email();
+            }
+            verifiedTokens.invalidate(digest);
+            throw new ExpiredJwtException(null, null, "JWT expired at " + new Date(verified.expiresAt()));
+        }
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        Date expiration = claims.getExpiration();
+        verified = new VerifiedToken(claims.getSubject(), expiration == null ? null : expiration.getTime());
+        verifiedTokens.put(digest, verified);
+        return verified.email();
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // expiresAt is the token's "exp" in epoch millis, null when it has none
+    private record VerifiedToken(String email, Long expiresAt) {
+    }
+
+    // Keep an entry until its token's "exp"; tokens without one fall back to a day
+    private static class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+        private static final long DEFAULT_TTL_NANOS = TimeUnit.DAYS.toNanos(1);
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+            if (token.expiresAt() == null) {
+                return DEFAULT_TTL_NANOS;
+            }
+            long remainingMillis = token.expiresAt() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
-}
\ No newline at end of file
+}
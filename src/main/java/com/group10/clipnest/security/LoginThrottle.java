@@ -0,0 +1,114 @@
+package com.group10.clipnest.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts failed logins per client address, per (address, account) pair and per account over a
+ * fixed window starting at the first failure. Once a count reaches its limit, further attempts
+ * it covers are refused before any password is hashed, so guessing at one account or spraying
+ * from one address stops costing BCrypt time. The pair limit is the tight one and only holds back
+ * the guessing address; the account limit holds whatever the address, so spreading guesses over
+ * many addresses still runs out, but its ceiling is set well above what the owner mistyping would
+ * reach. A successful login clears the pair's count. The address is the client address Tomcat
+ * resolved through server.forward-headers-strategy, not the proxy's.
+ */
+@Component
+public class LoginThrottle {
+
+    // Address, address+account or account -> failures in the current window; the entry expiring ends the window
+    private final Cache<String, AtomicInteger> addressFailures;
+    private final Cache<String, AtomicInteger> pairFailures;
+    private final Cache<String, AtomicInteger> accountFailures;
+
+    private final int maxAddressFailures;
+    private final int maxPairFailures;
+    private final int maxAccountFailures;
+    private final Duration window;
+
+    private final Counter addressThrottled;
+    private final Counter pairThrottled;
+    private final Counter accountThrottled;
+
+    public LoginThrottle(MeterRegistry meterRegistry,
+                         @Value("${clipnest.auth.login.max-failures-per-address:30}") int maxAddressFailures,
+                         @Value("${clipnest.auth.login.max-failures-per-account:5}") int maxPairFailures,
+                         @Value("${clipnest.auth.login.max-failures-per-account-total:50}") int maxAccountFailures,
+                         @Value("${clipnest.auth.login.window:15m}") Duration window,
+                         @Value("${clipnest.auth.login.maximum-size:100000}") long maximumSize) {
+        this.maxAddressFailures = maxAddressFailures;
+        this.maxPairFailures = maxPairFailures;
+        this.maxAccountFailures = maxAccountFailures;
+        this.window = window;
+        this.addressFailures = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(window).build();
+        this.pairFailures = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(window).build();
+        this.accountFailures = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(window).build();
+        this.addressThrottled = Counter.builder("clipnest.auth.login.throttled")
+                .description("Login attempts refused before hashing")
+                .tag("scope", "address")
+                .register(meterRegistry);
+        this.pairThrottled = Counter.builder("clipnest.auth.login.throttled")
+                .description("Login attempts refused before hashing")
+                .tag("scope", "account")
+                .register(meterRegistry);
+        this.accountThrottled = Counter.builder("clipnest.auth.login.throttled")
+                .description("Login attempts refused before hashing")
+                .tag("scope", "account-total")
+                .register(meterRegistry);
+    }
+
+    // False when the address, the account from this address, or the account from anywhere used up
+    // its failures for this window
+    public boolean tryAcquire(String address, String email) {
+        if (exceeded(addressFailures, address, maxAddressFailures)) {
+            addressThrottled.increment();
+            return false;
+        }
+        if (exceeded(pairFailures, pairKey(address, email), maxPairFailures)) {
+            pairThrottled.increment();
+            return false;
+        }
+        if (exceeded(accountFailures, accountKey(email), maxAccountFailures)) {
+            accountThrottled.increment();
+            return false;
+        }
+        return true;
+    }
+
+    public void recordFailure(String address, String email) {
+        addressFailures.get(address, key -> new AtomicInteger()).incrementAndGet();
+        pairFailures.get(pairKey(address, email), key -> new AtomicInteger()).incrementAndGet();
+        accountFailures.get(accountKey(email), key -> new AtomicInteger()).incrementAndGet();
+    }
+
+    // Only the pair's count: guesses made at the account from other addresses still count
+    public void recordSuccess(String address, String email) {
+        pairFailures.invalidate(pairKey(address, email));
+    }
+
+    // Upper bound for Retry-After; the window may end sooner
+    public Duration window() {
+        return window;
+    }
+
+    private static boolean exceeded(Cache<String, AtomicInteger> failures, String key, int max) {
+        AtomicInteger count = failures.getIfPresent(key);
+        return count != null && count.get() >= max;
+    }
+
+    private static String pairKey(String address, String email) {
+        return address + " " + accountKey(email);
+    }
+
+    private static String accountKey(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
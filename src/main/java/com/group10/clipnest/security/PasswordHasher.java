@@ -0,0 +1,156 @@
+package com.group10.clipnest.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Runs BCrypt on a small fixed pool instead of the request thread. A login storm then costs at
+ * most hash-threads cores and queue-capacity waiting requests; anything beyond that is turned
+ * away at once with BusyException (answered with 503) instead of pinning every Tomcat thread on
+ * hashing while chat traffic starves. Hash time and queue wait are timed separately so a slow
+ * login can be told apart from a congested one.
+ */
+@Component
+public class PasswordHasher {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHasher.class);
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+
+    private final Timer encodeTime;
+    private final Timer matchTime;
+    private final Timer queueWait;
+    private final Counter rejected;
+
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          MeterRegistry meterRegistry,
+                          @Value("${clipnest.auth.hash-threads:0}") int threads,
+                          @Value("${clipnest.auth.hash-queue-capacity:32}") int queueCapacity,
+                          @Value("${clipnest.auth.hash-timeout-ms:3000}") long timeoutMs) {
+        this.passwordEncoder = passwordEncoder;
+        this.timeoutMs = timeoutMs;
+
+        // 0 leaves half the cores to everything else
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("clipnest.auth.password.queue", executor, pool -> pool.getQueue().size())
+                .description("Password hashes waiting for a hasher thread")
+                .register(meterRegistry);
+        this.encodeTime = Timer.builder("clipnest.auth.password.hash")
+                .description("Time spent inside BCrypt")
+                .tag("operation", "encode")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.matchTime = Timer.builder("clipnest.auth.password.hash")
+                .description("Time spent inside BCrypt")
+                .tag("operation", "matches")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("clipnest.auth.password.queue.wait")
+                .description("Time a password hash waited for a hasher thread")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejected = Counter.builder("clipnest.auth.password.rejected")
+                .description("Password hashes turned away because the hasher was saturated")
+                .register(meterRegistry);
+    }
+
+    public String encode(String rawPassword) {
+        return run(() -> encodeTime.record(() -> passwordEncoder.encode(rawPassword)));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return run(() -> matchTime.record(() -> passwordEncoder.matches(rawPassword, encodedPassword)));
+    }
+
+    // True when the stored hash was made with a lower work factor than the one configured now
+    public boolean needsRehash(String encodedPassword) {
+        return encodedPassword != null && !encodedPassword.isEmpty() && passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    // Hash in the background and hand the result to onEncoded; skipped when the pool is busy,
+    // since the next login will try again
+    public void encodeInBackground(String rawPassword, Consumer<String> onEncoded) {
+        long queuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                queueWait.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    onEncoded.accept(encodeTime.record(() -> passwordEncoder.encode(rawPassword)));
+                } catch (Exception e) {
+                    logger.warn("❌ Background password rehash failed: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+        }
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T run(Callable<T> hash) {
+        long queuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWait.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return hash.call();
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new BusyException();
+        }
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Still queued: drop it. Already hashing: let it finish, nobody reads the result.
+            future.cancel(false);
+            rejected.increment();
+            throw new BusyException();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new BusyException();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    // The hasher is saturated; callers answer 503 and the client retries later
+    public static class BusyException extends RuntimeException {
+
+        public BusyException() {
+            super("Password hasher is saturated");
+        }
+    }
+}
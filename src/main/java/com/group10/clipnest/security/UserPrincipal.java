@@ -0,0 +1,21 @@
+package com.group10.clipnest.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Authenticated user as seen by controllers: profile fields only, no password and no follow graph
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPrincipal {
+    private String id;
+    private String email;
+    private String username;
+    private String fullName;
+    private String birthdate;
+    private String gender;
+    private List<String> interests;
+}
@@ -0,0 +1,23 @@
+package com.group10.clipnest.security;
+
+import com.group10.clipnest.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+// Drops the cached principal whenever a user document is saved through the repository
+@Component
+public class UserPrincipalEvictionListener extends AbstractMongoEventListener<User> {
+
+    @Autowired
+    private UserPrincipalService userPrincipalService;
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<User> event) {
+        String email = event.getSource().getEmail();
+        if (email != null) {
+            userPrincipalService.evict(email);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.group10.clipnest.security;
+
+import com.group10.clipnest.config.CacheConfig;
+import com.group10.clipnest.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+@Service
+public class UserPrincipalService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // Unknown emails are not cached so a freshly registered user is picked up immediately
+    @Cacheable(cacheNames = CacheConfig.PRINCIPALS, unless = "#result == null")
+    public Optional<UserPrincipal> loadByEmail(String email) {
+        return userRepository.findPrincipalByEmail(email);
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.PRINCIPALS)
+    public void evict(String email) {
+    }
+}
@@ -0,0 +1,176 @@
+package com.group10.clipnest.suggestion;
+
+import com.group10.clipnest.config.CacheConfig;
+import com.group10.clipnest.model.User;
+import com.group10.clipnest.payload.FollowSuggestion;
+import com.group10.clipnest.repository.FollowRepository;
+import com.group10.clipnest.repository.UserRepository;
+import com.group10.clipnest.security.UserPrincipal;
+import com.group10.clipnest.security.UserPrincipalService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * Friends-of-friends follow suggestions. Candidates are the users followed by the people the
+ * viewer follows, scored by how many of those people follow them and by shared interests. When
+ * fewer than keep of them are not followed yet, the list is topped up with the most followed users
+ * sharing an interest, then the most followed overall.
+ *
+ * Lists are cached per user and recomputed in the background by FollowSuggestionRefreshJob,
+ * so the endpoint normally only reads the cache. Only reads keep an entry alive (see CacheConfig),
+ * so the refresh and follow-time edits go through the native map without touching its expiry.
+ */
+@Service
+public class FollowSuggestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FollowSuggestionService.class);
+
+    // A friend in common says more than an interest in common
+    private static final double MUTUAL_WEIGHT = 3.0;
+    private static final double INTEREST_WEIGHT = 1.0;
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserPrincipalService userPrincipalService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Value("${clipnest.suggestions.first-hop-limit:500}")
+    private int firstHopLimit;
+
+    @Value("${clipnest.suggestions.per-friend-limit:200}")
+    private int perFriendLimit;
+
+    @Value("${clipnest.suggestions.pool-size:200}")
+    private int poolSize;
+
+    // Kept per user, more than a page so followed users can be dropped without a recompute
+    @Value("${clipnest.suggestions.keep:30}")
+    private int keep;
+
+    public List<FollowSuggestion> getSuggestions(String email, int limit) {
+        List<FollowSuggestion> suggestions = cache().get(email, () -> compute(email));
+        return suggestions.stream().limit(limit).collect(Collectors.toList());
+    }
+
+    // Take a just-followed user off the cached list instead of waiting for the next refresh
+    public void removeSuggestion(String viewerEmail, String followedEmail) {
+        entries().computeIfPresent(viewerEmail, (email, cached) -> {
+            @SuppressWarnings("unchecked")
+            List<FollowSuggestion> suggestions = (List<FollowSuggestion>) cached;
+            return suggestions.stream()
+                    .filter(suggestion -> !suggestion.getEmail().equals(followedEmail))
+                    .collect(Collectors.toList());
+        });
+    }
+
+    // Recompute the list of every user currently cached, i.e. everyone who read theirs within the TTL
+    public int refreshCached() {
+        ConcurrentMap<Object, Object> entries = entries();
+        List<Object> emails = new ArrayList<>(entries.keySet());
+
+        int refreshed = 0;
+        for (Object email : emails) {
+            try {
+                List<FollowSuggestion> suggestions = compute((String) email);
+                // An entry that expired meanwhile stays gone
+                if (entries.computeIfPresent(email, (key, cached) -> suggestions) != null) {
+                    refreshed++;
+                }
+            } catch (Exception e) {
+                logger.warn("❌ Could not refresh follow suggestions for {}: {}", email, e.getMessage());
+            }
+        }
+        return refreshed;
+    }
+
+    List<FollowSuggestion> compute(String email) {
+        Map<String, Long> mutuals = followRepository.findFriendsOfFriends(email, firstHopLimit, perFriendLimit, poolSize);
+        Set<String> interests = userPrincipalService.loadByEmail(email)
+                .map(UserPrincipal::getInterests)
+                .map(HashSet::new)
+                .orElseGet(HashSet::new);
+
+        // Each source tops up with users not already suggested, so the fallbacks run whenever the
+        // people left after dropping followees are too few, not just when the graph is empty
+        Map<String, User> candidates = new LinkedHashMap<>();
+        if (!mutuals.isEmpty()) {
+            addUnfollowed(email, userRepository.findSuggestionProfilesByEmailIn(mutuals.keySet()), candidates);
+        }
+        if (candidates.size() < keep && !interests.isEmpty()) {
+            addUnfollowed(email, userRepository.findMostFollowedByInterestsIn(interests, Limit.of(poolSize)), candidates);
+        }
+        if (candidates.size() < keep) {
+            addUnfollowed(email, userRepository.findMostFollowed(Limit.of(poolSize)), candidates);
+        }
+
+        return candidates.values().stream()
+                .map(user -> toSuggestion(user, mutuals.getOrDefault(user.getEmail(), 0L), interests))
+                .sorted(Comparator.comparingDouble(FollowSuggestion::getScore).reversed()
+                        .thenComparing(FollowSuggestion::getFollowersCount, Comparator.reverseOrder()))
+                .limit(keep)
+                .collect(Collectors.toList());
+    }
+
+    // Never suggest yourself or someone you already follow
+    private void addUnfollowed(String email, List<User> users, Map<String, User> candidates) {
+        Map<String, User> added = new LinkedHashMap<>();
+        for (User user : users) {
+            if (!user.getEmail().equals(email) && !candidates.containsKey(user.getEmail())) {
+                added.putIfAbsent(user.getEmail(), user);
+            }
+        }
+        if (added.isEmpty()) {
+            return;
+        }
+        followRepository.findByFollowerIdAndFolloweeIdIn(email, added.keySet())
+                .forEach(follow -> added.remove(follow.getFolloweeId()));
+        candidates.putAll(added);
+    }
+
+    private FollowSuggestion toSuggestion(User user, long mutualCount, Set<String> interests) {
+        int sharedInterests = 0;
+        if (user.getInterests() != null) {
+            for (String interest : new HashSet<>(user.getInterests())) {
+                if (interests.contains(interest)) {
+                    sharedInterests++;
+                }
+            }
+        }
+        double score = mutualCount * MUTUAL_WEIGHT + sharedInterests * INTEREST_WEIGHT;
+        return new FollowSuggestion(user.getEmail(), user.getUsername(), user.getFullName(),
+                user.getFollowersCount(), mutualCount, sharedInterests, score);
+    }
+
+    private Cache cache() {
+        return cacheManager.getCache(CacheConfig.FOLLOW_SUGGESTIONS);
+    }
+
+    // Writes through this map keep the entry's remaining lifetime, and iterating it is not a read
+    @SuppressWarnings("unchecked")
+    private ConcurrentMap<Object, Object> entries() {
+        return ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache().getNativeCache()).asMap();
+    }
+}
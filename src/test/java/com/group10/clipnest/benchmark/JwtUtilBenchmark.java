@@ -0,0 +1,79 @@
+package com.group10.clipnest.benchmark;
+
+import com.group10.clipnest.model.User;
+import com.group10.clipnest.security.JwtUtil;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.SecretKey;
+import java.util.Base64;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bearer token verification as done by JwtAuthenticationFilter on every request:
+ * the old build-a-parser-and-verify path against JwtUtil's shared parser and verified-token cache.
+ * A pool of distinct tokens stands in for concurrently active users.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class JwtUtilBenchmark {
+
+    @Param({"1000"})
+    private int activeUsers;
+
+    private SecretKey secretKey;
+    private JwtUtil jwtUtil;
+    private String[] tokens;
+
+    @Setup
+    public void setUp() {
+        byte[] secret = new byte[32];
+        ThreadLocalRandom.current().nextBytes(secret);
+        secretKey = Keys.hmacShaKeyFor(secret);
+        jwtUtil = new JwtUtil(Base64.getEncoder().encodeToString(secret), 10_000);
+
+        tokens = new String[activeUsers];
+        for (int i = 0; i < activeUsers; i++) {
+            User user = new User();
+            user.setEmail("user" + i + "@clipnest.test");
+            tokens[i] = jwtUtil.generateToken(user);
+        }
+    }
+
+    @Benchmark
+    public String parseOnEveryRequest() {
+        return Jwts.parserBuilder()
+                .setSigningKey(secretKey)
+                .build()
+                .parseClaimsJws(randomToken())
+                .getBody()
+                .getSubject();
+    }
+
+    @Benchmark
+    public String cachedVerification() {
+        return jwtUtil.getEmailFromToken(randomToken());
+    }
+
+    private String randomToken() {
+        return tokens[ThreadLocalRandom.current().nextInt(tokens.length)];
+    }
+}
@@ -0,0 +1,136 @@
+package com.group10.clipnest.benchmark;
+
+import com.group10.clipnest.ClipNestApplication;
+import com.group10.clipnest.model.User;
+import com.group10.clipnest.repository.UserRepository;
+import com.group10.clipnest.security.JwtUtil;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of request handling on Tomcat's platform-thread pool against virtual threads
+ * (spring.threads.virtual.enabled). Boots the whole app on a random port over an in-memory
+ * Mongo stand-in that sleeps mongoLatencyMs per command, like a network round trip would, and
+ * hammers the inbox endpoint from more client threads than Tomcat's 200 worker threads. The
+ * sleep holds a pooled connection, so the Mongo pool is raised well above both the worker and
+ * client thread counts; at the default 100 it would cap both modes alike. Throughput and
+ * SampleTime (p99) are reported side by side for each mode.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark=RequestThreadingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(400)
+public class RequestThreadingBenchmark {
+
+    private static final int MONGO_POOL_SIZE = 1000;
+
+    @Param({"false", "true"})
+    private boolean virtualThreads;
+
+    @Param({"20"})
+    private long mongoLatencyMs;
+
+    private MongoServer mongoServer;
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private HttpRequest inboxRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mongoServer = new MongoServer(new MemoryBackend());
+        String mongoUri = "mongodb://" + mongoServer.bindAndGetConnectionString().replace("mongodb://", "") + "/clipnest";
+
+        byte[] secret = new byte[32];
+        ThreadLocalRandom.current().nextBytes(secret);
+
+        context = new SpringApplicationBuilder(ClipNestApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.data.mongodb.uri=" + mongoUri,
+                        "jwt.secret=" + Base64.getEncoder().encodeToString(secret),
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "logging.level.com.group10.clipnest=WARN")
+                .initializers(applicationContext -> ((GenericApplicationContext) applicationContext)
+                        .registerBean(MongoClientSettingsBuilderCustomizer.class,
+                                () -> builder -> builder
+                                        .addCommandListener(new SimulatedLatency(mongoLatencyMs))
+                                        .applyToConnectionPoolSettings(pool -> pool.maxSize(MONGO_POOL_SIZE))))
+                .run();
+
+        User user = new User();
+        user.setEmail("loadtest@clipnest.test");
+        user.setUsername("loadtest");
+        context.getBean(UserRepository.class).save(user);
+        String token = context.getBean(JwtUtil.class).generateToken(user);
+
+        String port = context.getEnvironment().getProperty("local.server.port");
+        httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        inboxRequest = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/messages/conversations"))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        mongoServer.shutdownNow();
+    }
+
+    @Benchmark
+    public int inbox() throws Exception {
+        HttpResponse<Void> response = httpClient.send(inboxRequest, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Inbox returned " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+
+    // Holds the calling thread for the round trip a remote Mongo would cost
+    private record SimulatedLatency(long latencyMs) implements CommandListener {
+
+        @Override
+        public void commandStarted(CommandStartedEvent event) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
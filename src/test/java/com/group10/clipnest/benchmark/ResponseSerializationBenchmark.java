@@ -0,0 +1,154 @@
+package com.group10.clipnest.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.group10.clipnest.model.Message;
+import com.group10.clipnest.model.User;
+import com.group10.clipnest.payload.FollowUserResponse;
+import com.group10.clipnest.payload.MessageResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping plus serialization of a conversation page and a follower list page: the old
+ * HashMap-per-row responses against the record DTOs, with and without Blackbird.
+ * Mappers are configured like Spring Boot's (JavaTimeModule, ISO dates).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+
+    @Param({"1000"})
+    private int rows;
+
+    private ObjectMapper plainMapper;
+    private ObjectMapper blackbirdMapper;
+    private List<Message> messages;
+    private List<User> followers;
+
+    @Setup
+    public void setUp() {
+        plainMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        blackbirdMapper = plainMapper.copy().registerModule(new BlackbirdModule());
+
+        messages = new ArrayList<>(rows);
+        followers = new ArrayList<>(rows);
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 12, 0);
+        for (int i = 0; i < rows; i++) {
+            Message message = new Message();
+            message.setId(String.format("%024x", i));
+            message.setSenderId("alice@clipnest.test");
+            message.setSenderUsername("alice");
+            message.setReceiverId("bob@clipnest.test");
+            message.setReceiverUsername("bob");
+            message.setContent("Message number " + i + " with a little bit of text in it");
+            message.setType("text");
+            message.setTimestamp(start.plusSeconds(i));
+            message.setRead(i % 2 == 0);
+            message.setDelivered(true);
+            messages.add(message);
+
+            User user = new User();
+            user.setEmail("user" + i + "@clipnest.test");
+            user.setUsername("user" + i);
+            user.setFullName("User Number " + i);
+            user.setFollowersCount(i);
+            followers.add(user);
+        }
+    }
+
+    @Benchmark
+    public byte[] conversationMaps() throws Exception {
+        List<Map<String, Object>> page = new ArrayList<>(rows);
+        for (Message message : messages) {
+            page.add(messageMap(message));
+        }
+        return plainMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] conversationRecords() throws Exception {
+        return plainMapper.writeValueAsBytes(messages.stream().map(MessageResponse::from).toList());
+    }
+
+    @Benchmark
+    public byte[] conversationRecordsBlackbird() throws Exception {
+        return blackbirdMapper.writeValueAsBytes(messages.stream().map(MessageResponse::from).toList());
+    }
+
+    @Benchmark
+    public byte[] followersMaps() throws Exception {
+        List<Map<String, Object>> page = new ArrayList<>(rows);
+        for (User user : followers) {
+            Map<String, Object> userData = new HashMap<>();
+            userData.put("id", user.getEmail());
+            userData.put("username", user.getUsername());
+            userData.put("email", user.getEmail());
+            userData.put("name", user.getFullName());
+            userData.put("followersCount", user.getFollowersCount());
+            page.add(userData);
+        }
+        return plainMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] followersRecords() throws Exception {
+        return plainMapper.writeValueAsBytes(followers.stream().map(FollowUserResponse::from).toList());
+    }
+
+    @Benchmark
+    public byte[] followersRecordsBlackbird() throws Exception {
+        return blackbirdMapper.writeValueAsBytes(followers.stream().map(FollowUserResponse::from).toList());
+    }
+
+    // The previous MessageController mapping
+    private static Map<String, Object> messageMap(Message message) {
+        Map<String, Object> messageMap = new HashMap<>();
+        messageMap.put("id", message.getId());
+        messageMap.put("senderId", message.getSenderId());
+        messageMap.put("senderUsername", message.getSenderUsername());
+        messageMap.put("receiverId", message.getReceiverId());
+        messageMap.put("receiverUsername", message.getReceiverUsername());
+        messageMap.put("content", message.getContent());
+        messageMap.put("type", message.getType());
+        messageMap.put("timestamp", message.getTimestamp().toString());
+        messageMap.put("isRead", message.isRead());
+        messageMap.put("isDelivered", message.isDelivered());
+        messageMap.put("isEdited", message.isEdited());
+        messageMap.put("isDeleted", message.isDeleted());
+        if (message.getImageUri() != null) {
+            messageMap.put("imageUri", message.getImageUri());
+        }
+        if (message.getAudioUri() != null) {
+            messageMap.put("audioUri", message.getAudioUri());
+        }
+        if (message.getReplyToMessageId() != null) {
+            messageMap.put("replyToMessageId", message.getReplyToMessageId());
+        }
+        return messageMap;
+    }
+}
@@ -0,0 +1,103 @@
+package com.group10.clipnest.benchmark;
+
+import com.group10.clipnest.search.SearchableUser;
+import com.group10.clipnest.search.UserSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Search over a synthetic user base: the old approach (scan every user's username and full name)
+ * against UserSearchIndex. Queries are 1-4 character prefixes of real names, as typed in the
+ * search box, so the short ones hit very wide term ranges.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Threads(4)
+public class UserSearchIndexBenchmark {
+
+    private static final String[] SYLLABLES = {
+            "an", "be", "ca", "da", "el", "fa", "gi", "ha", "is", "jo", "ka", "li", "ma",
+            "no", "ol", "pa", "ra", "sa", "te", "ul", "va", "wi", "xa", "yo", "za", "mé"};
+
+    @Param({"1000000"})
+    private int users;
+
+    private SearchableUser[] all;
+    private UserSearchIndex index;
+    private String[] queries;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        all = new SearchableUser[users];
+        for (int i = 0; i < users; i++) {
+            String first = word(random);
+            String last = word(random);
+            all[i] = new SearchableUser("user" + i + "@clipnest.test", first + "_" + last + i,
+                    capitalize(first) + " " + capitalize(last), random.nextInt(10_000));
+        }
+
+        index = new UserSearchIndex(100_000, 10_000);
+        index.load(IntStream.range(0, users).mapToObj(i -> all[i]));
+
+        queries = new String[1024];
+        for (int i = 0; i < queries.length; i++) {
+            String source = all[random.nextInt(users)].getFullName();
+            queries[i] = source.substring(0, 1 + random.nextInt(Math.min(4, source.length())));
+        }
+    }
+
+    @Benchmark
+    public List<SearchableUser> linearScan() {
+        // Like the old controller: collect every match, then cut to the page size
+        String q = randomQuery().toLowerCase();
+        List<SearchableUser> matches = Arrays.stream(all)
+                .filter(user -> user.getUsername().toLowerCase().contains(q)
+                        || user.getFullName().toLowerCase().contains(q))
+                .toList();
+        return matches.subList(0, Math.min(20, matches.size()));
+    }
+
+    @Benchmark
+    public List<SearchableUser> indexedTopK() {
+        return index.search(randomQuery(), 20, null);
+    }
+
+    private String randomQuery() {
+        return queries[ThreadLocalRandom.current().nextInt(queries.length)];
+    }
+
+    private static String word(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = 2 + random.nextInt(2);
+        for (int i = 0; i < length; i++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
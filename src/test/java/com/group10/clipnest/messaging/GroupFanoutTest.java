@@ -0,0 +1,111 @@
+package com.group10.clipnest.messaging;
+
+import com.group10.clipnest.model.GroupMember;
+import com.group10.clipnest.push.InMemoryPushBroker;
+import com.group10.clipnest.push.PushEvent;
+import com.group10.clipnest.push.PushSession;
+import com.group10.clipnest.push.PushSessionRegistry;
+import com.group10.clipnest.repository.GroupMemberRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * A node pushes a group message only to its own connected users who are members, never back
+ * to the sender, and never reads the whole membership when only a few users are connected.
+ */
+class GroupFanoutTest {
+
+    private static final String GROUP = "group-1";
+    private static final String SENDER = "member0@clipnest.test";
+
+    private final GroupMemberRepository groupMemberRepository = mock(GroupMemberRepository.class);
+    private final InMemoryPushBroker broker = new InMemoryPushBroker();
+    private final PushSessionRegistry registry = new PushSessionRegistry(broker);
+    private final Map<String, RecordingSession> sessions = new HashMap<>();
+
+    @Test
+    void connectedUsersAreLookedUpByName() {
+        connect(SENDER, "member1@clipnest.test", "member2@clipnest.test", "outsider@clipnest.test");
+        when(groupMemberRepository.findMemberIds(ArgumentMatchers.eq(GROUP), ArgumentMatchers.any()))
+                .thenReturn(List.of("member1@clipnest.test", "member2@clipnest.test"));
+
+        int delivered = new GroupFanout(groupMemberRepository, broker, registry, 1000, 1).deliverLocally(event());
+
+        assertEquals(2, delivered);
+        assertReceived("member1@clipnest.test", "member2@clipnest.test");
+        verify(groupMemberRepository).findMemberIds(ArgumentMatchers.eq(GROUP),
+                ArgumentMatchers.argThat(ids -> ids.size() == 3 && !ids.contains(SENDER)));
+        verify(groupMemberRepository, never()).streamMemberIds(GROUP);
+    }
+
+    @Test
+    void manyConnectedUsersScanTheMembershipInstead() {
+        connect(SENDER, "member1@clipnest.test", "member2500@clipnest.test", "outsider@clipnest.test");
+        when(groupMemberRepository.streamMemberIds(GROUP)).thenReturn(members(2000));
+
+        int delivered = new GroupFanout(groupMemberRepository, broker, registry, 2, 1).deliverLocally(event());
+
+        assertEquals(1, delivered);
+        assertReceived("member1@clipnest.test");
+        verify(groupMemberRepository, never()).findMemberIds(ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+    private void connect(String... users) {
+        for (String user : users) {
+            RecordingSession session = new RecordingSession();
+            sessions.put(user, session);
+            registry.register(user, session);
+        }
+    }
+
+    private void assertReceived(String... recipients) {
+        List<String> expected = List.of(recipients);
+        sessions.forEach((user, session) -> {
+            assertEquals(expected.contains(user) ? 1 : 0, session.events.size(), user);
+            session.events.forEach(event -> assertEquals(PushEvent.GROUP_MESSAGE, event.type()));
+        });
+        assertTrue(sessions.get(SENDER).events.isEmpty());
+    }
+
+    private static PushEvent event() {
+        return PushEvent.toGroup(PushEvent.GROUP_MESSAGE, GROUP, SENDER, Map.of("content", "hello everyone"));
+    }
+
+    private static Stream<GroupMember> members(int count) {
+        return IntStream.range(0, count).mapToObj(i -> {
+            GroupMember member = new GroupMember();
+            member.setMemberId("member" + i + "@clipnest.test");
+            return member;
+        });
+    }
+
+    private static class RecordingSession implements PushSession {
+
+        private final List<PushEvent> events = new ArrayList<>();
+
+        @Override
+        public boolean send(PushEvent event) {
+            events.add(event);
+            return true;
+        }
+
+        @Override
+        public boolean ping() {
+            return true;
+        }
+    }
+}
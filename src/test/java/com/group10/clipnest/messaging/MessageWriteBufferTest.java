@@ -0,0 +1,193 @@
+package com.group10.clipnest.messaging;
+
+import com.group10.clipnest.model.Message;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.group10.clipnest.push.InMemoryPushBroker;
+import com.group10.clipnest.push.PushSessionRegistry;
+import com.group10.clipnest.repository.ConversationRepository;
+import com.group10.clipnest.repository.GroupRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Queued messages go out in bulk insert batches no larger than the configured size, a full queue
+ * turns new messages away instead of blocking the caller, and failed inserts are retried for the
+ * failed documents only until the attempts run out, and a slow push never holds up the inserts.
+ * Stopping writes out everything accepted and refuses what comes after.
+ */
+class MessageWriteBufferTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final BulkOperations bulkOperations = mock(BulkOperations.class, RETURNS_SELF);
+    private final ConversationRepository conversationRepository = mock(ConversationRepository.class);
+    private final GroupRepository groupRepository = mock(GroupRepository.class);
+    private final GroupFanout groupFanout = mock(GroupFanout.class);
+    private final PushSessionRegistry pushSessionRegistry = new PushSessionRegistry(new InMemoryPushBroker());
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final List<List<Message>> inserts = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Message.class)).thenReturn(bulkOperations);
+        doAnswer(invocation -> {
+            inserts.add(List.copyOf(invocation.<List<Message>>getArgument(0)));
+            return bulkOperations;
+        }).when(bulkOperations).insert(ArgumentMatchers.<List<Message>>any());
+    }
+
+    @Test
+    void queuedMessagesAreWrittenInBoundedBatches() throws Exception {
+        MessageWriteBuffer buffer = buffer(100, 3);
+        List<Message> sent = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Message message = message(i);
+            assertTrue(buffer.offer(message));
+            sent.add(message);
+        }
+        buffer.start();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (inserts.stream().mapToInt(List::size).sum() < 10 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        buffer.stop();
+
+        assertEquals(10, inserts.stream().mapToInt(List::size).sum());
+        assertTrue(inserts.stream().allMatch(batch -> batch.size() <= 4));
+        sent.forEach(message -> {
+            assertNotNull(message.getId());
+            assertNotNull(message.getTimestamp());
+            assertEquals("alice@clipnest.test bob@clipnest.test", message.getConversationId());
+        });
+    }
+
+    @Test
+    void fullQueueRejectsNewMessages() {
+        MessageWriteBuffer buffer = buffer(2, 3);
+
+        assertTrue(buffer.offer(message(1)));
+        assertTrue(buffer.offer(message(2)));
+        assertFalse(buffer.offer(message(3)));
+        assertEquals(2, buffer.depth());
+        assertEquals(1.0, meterRegistry.counter("clipnest.messages.write.rejected").count());
+    }
+
+    @Test
+    void stopWritesQueuedMessagesAndRefusesNewOnes() {
+        MessageWriteBuffer buffer = buffer(100, 3);
+        buffer.start();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(buffer.offer(message(i)));
+        }
+        buffer.stop();
+
+        assertEquals(10, inserts.stream().mapToInt(List::size).sum());
+        assertTrue(buffer.isStopped());
+        assertFalse(buffer.offer(message(10)));
+        assertEquals(0, buffer.depth());
+        assertEquals(0.0, meterRegistry.counter("clipnest.messages.write.rejected").count());
+    }
+
+    @Test
+    void onlyFailedDocumentsAreRetried() {
+        List<Message> batch = List.of(message(0), message(1), message(2));
+        batch.forEach(message -> message.setId("id-" + message.getContent()));
+        // The second document failed, the third already landed on an earlier attempt
+        when(bulkOperations.execute())
+                .thenThrow(bulkFailure(new BulkWriteError(91, "shutdown in progress", new BsonDocument(), 1),
+                        new BulkWriteError(11000, "duplicate key", new BsonDocument(), 2)))
+                .thenReturn(null);
+
+        buffer(100, 3).flush(batch);
+
+        assertEquals(List.of(batch, List.of(batch.get(1))), inserts);
+        assertEquals(1.0, meterRegistry.counter("clipnest.messages.write.retried").count());
+        assertEquals(0.0, meterRegistry.counter("clipnest.messages.write.failed").count());
+        verify(conversationRepository).recordMessages(batch);
+    }
+
+    @Test
+    void messagesAreDroppedOnlyAfterEveryAttemptFails() {
+        List<Message> batch = List.of(message(0), message(1));
+        when(bulkOperations.execute()).thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+        buffer(100, 3).flush(batch);
+
+        assertEquals(3, inserts.size());
+        assertEquals(2.0, meterRegistry.counter("clipnest.messages.write.failed").count());
+        verify(conversationRepository, never()).recordMessages(ArgumentMatchers.any());
+    }
+
+    @Test
+    void slowPushDoesNotHoldUpTheFlusher() throws Exception {
+        PushSessionRegistry slowRegistry = mock(PushSessionRegistry.class);
+        CountDownLatch pushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            pushing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(slowRegistry).publish(ArgumentMatchers.any());
+        MessageWriteBuffer buffer = new MessageWriteBuffer(mongoTemplate, conversationRepository, slowRegistry,
+                groupRepository, groupFanout, meterRegistry, 100, 4, 50, 3, 1, 1, 5000);
+
+        long started = System.nanoTime();
+        buffer.flush(List.of(message(0)));
+        buffer.flush(List.of(message(1)));
+
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(2, inserts.size());
+        assertTrue(pushing.await(5, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    private MessageWriteBuffer buffer(int capacity, int maxAttempts) {
+        return new MessageWriteBuffer(mongoTemplate, conversationRepository, pushSessionRegistry,
+                groupRepository, groupFanout, meterRegistry, capacity, 4, 50, maxAttempts, 1, 1, 5000);
+    }
+
+    private static BulkOperationException bulkFailure(BulkWriteError... errors) {
+        return new BulkOperationException("bulk write failed", new MongoBulkWriteException(
+                BulkWriteResult.unacknowledged(), List.of(errors), null, new ServerAddress(), Set.of()));
+    }
+
+    private static Message message(int i) {
+        Message message = new Message();
+        message.setSenderId("alice@clipnest.test");
+        message.setSenderUsername("alice");
+        message.setReceiverId("bob@clipnest.test");
+        message.setReceiverUsername("bob");
+        message.setContent("message " + i);
+        message.setType("text");
+        return message;
+    }
+}
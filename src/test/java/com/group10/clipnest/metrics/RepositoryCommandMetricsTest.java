@@ -0,0 +1,35 @@
+package com.group10.clipnest.metrics;
+
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Document counts are read from the shapes of reply the driver hands to command listeners.
+ */
+class RepositoryCommandMetricsTest {
+
+    @Test
+    void countsFirstBatchOfFindReply() {
+        BsonDocument reply = BsonDocument.parse("{ cursor: { id: 0, ns: 'clipnest.messages', firstBatch: [ {}, {}, {} ] }, ok: 1 }");
+        assertEquals(3, RepositoryCommandMetrics.documentCount(reply));
+    }
+
+    @Test
+    void countsNextBatchOfGetMoreReply() {
+        BsonDocument reply = BsonDocument.parse("{ cursor: { id: 42, ns: 'clipnest.users', nextBatch: [ {}, {} ] }, ok: 1 }");
+        assertEquals(2, RepositoryCommandMetrics.documentCount(reply));
+    }
+
+    @Test
+    void countsAffectedDocumentsOfWriteReply() {
+        BsonDocument reply = BsonDocument.parse("{ n: 7, nModified: 7, ok: 1 }");
+        assertEquals(7, RepositoryCommandMetrics.documentCount(reply));
+    }
+
+    @Test
+    void reportsNothingForOtherReplies() {
+        assertEquals(-1, RepositoryCommandMetrics.documentCount(BsonDocument.parse("{ ok: 1 }")));
+    }
+}
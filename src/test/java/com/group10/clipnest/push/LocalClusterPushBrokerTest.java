@@ -0,0 +1,90 @@
+package com.group10.clipnest.push;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two nodes joined by the local cluster broker: an event published on one node reaches the
+ * recipient's session held by the other, and nobody else's.
+ */
+class LocalClusterPushBrokerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LocalClusterPushBroker brokerA = new LocalClusterPushBroker(objectMapper);
+    private final LocalClusterPushBroker brokerB = new LocalClusterPushBroker(objectMapper);
+    private final PushSessionRegistry nodeA = new PushSessionRegistry(brokerA);
+    private final PushSessionRegistry nodeB = new PushSessionRegistry(brokerB);
+
+    @AfterEach
+    void leaveCluster() {
+        brokerA.leave();
+        brokerB.leave();
+    }
+
+    @Test
+    void eventPublishedOnOneNodeReachesSessionOnAnother() throws Exception {
+        RecordingSession bobOnB = new RecordingSession(1);
+        RecordingSession aliceOnB = new RecordingSession(1);
+        nodeB.register("bob@clipnest.test", bobOnB);
+        nodeB.register("alice@clipnest.test", aliceOnB);
+
+        nodeA.publish(new PushEvent(PushEvent.MESSAGE, "bob@clipnest.test", Map.of("content", "hi bob")));
+
+        assertTrue(bobOnB.received.await(5, TimeUnit.SECONDS));
+        assertEquals(PushEvent.MESSAGE, bobOnB.events.get(0).type());
+        assertEquals("hi bob", ((Map<?, ?>) bobOnB.events.get(0).payload()).get("content"));
+        assertTrue(aliceOnB.events.isEmpty());
+    }
+
+    @Test
+    void brokenSessionIsDroppedOnDelivery() throws Exception {
+        RecordingSession closed = new RecordingSession(1);
+        closed.open = false;
+        nodeB.register("bob@clipnest.test", closed);
+
+        nodeA.publish(new PushEvent(PushEvent.RECEIPT, "bob@clipnest.test", Map.of("status", "read")));
+
+        assertTrue(closed.received.await(5, TimeUnit.SECONDS));
+        // The registry drops the session right after send() reports it closed
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (nodeB.sessionCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, nodeB.sessionCount());
+    }
+
+    private static class RecordingSession implements PushSession {
+
+        private final List<PushEvent> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch received;
+        private volatile boolean open = true;
+
+        RecordingSession(int expected) {
+            this.received = new CountDownLatch(expected);
+        }
+
+        @Override
+        public boolean send(PushEvent event) {
+            if (open) {
+                events.add(event);
+            }
+            received.countDown();
+            return open;
+        }
+
+        @Override
+        public boolean ping() {
+            return open;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.group10.clipnest.repository;
+
+import com.group10.clipnest.model.Conversation;
+import com.group10.clipnest.model.Message;
+import com.group10.clipnest.payload.ConversationSummary;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Inbox rows only ever move forward: a message or rebuilt summary older than the stored preview
+ * leaves the preview alone, while the receiver's unread count still counts every message and
+ * marking read only takes off what was marked.
+ */
+@DataMongoTest
+class ConversationRepositoryTest {
+
+    private static final String ALICE = "alice@clipnest.test";
+    private static final String BOB = "bob@clipnest.test";
+
+    private static final MongoServer mongoServer = new MongoServer(new MemoryBackend());
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        mongoServer.bind();
+        registry.add("spring.data.mongodb.uri",
+                () -> "mongodb://" + mongoServer.getConnectionString().replace("mongodb://", "") + "/clipnest");
+    }
+
+    @AfterAll
+    static void stopServer() {
+        mongoServer.shutdownNow();
+    }
+
+    @Autowired
+    private ConversationRepository conversationRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.remove(new Query(), Conversation.class);
+    }
+
+    @Test
+    void olderMessageDoesNotMoveThePreviewBack() {
+        conversationRepository.recordMessages(List.of(message("$newest", now)));
+        conversationRepository.recordMessages(List.of(message("late", now.minusSeconds(5))));
+
+        Conversation receiverRow = row(BOB, ALICE);
+        assertEquals("$newest", receiverRow.getLastMessage());
+        assertEquals(now, receiverRow.getLastTimestamp());
+        assertEquals(2, receiverRow.getUnreadCount());
+
+        Conversation senderRow = row(ALICE, BOB);
+        assertEquals("$newest", senderRow.getLastMessage());
+        assertEquals(0, senderRow.getUnreadCount());
+    }
+
+    @Test
+    void rebuildSkipsRowsThatRecordedANewerMessage() {
+        conversationRepository.recordMessages(List.of(message("first", now.minusSeconds(5)), message("second", now)));
+
+        // Computed before "second" was recorded
+        conversationRepository.upsertSummaries(BOB, List.of(summary("first", now.minusSeconds(5), 1)));
+        assertEquals("second", row(BOB, ALICE).getLastMessage());
+        assertEquals(2, row(BOB, ALICE).getUnreadCount());
+
+        conversationRepository.upsertSummaries(BOB, List.of(summary("second", now, 0)));
+        assertEquals(0, row(BOB, ALICE).getUnreadCount());
+    }
+
+    @Test
+    void markingReadTakesOffOnlyWhatWasMarked() {
+        conversationRepository.recordMessages(List.of(message("first", now.minusSeconds(5)), message("second", now)));
+        // A message recorded between counting and writing would be lost by a $set
+        conversationRepository.recordMessages(List.of(message("third", now.plusSeconds(5))));
+
+        assertEquals(1, conversationRepository.decrementUnreadCount(BOB, ALICE, 2));
+        assertEquals(1, row(BOB, ALICE).getUnreadCount());
+
+        assertEquals(0, conversationRepository.decrementUnreadCount(BOB, ALICE, 5));
+        assertEquals(0, row(BOB, ALICE).getUnreadCount());
+        assertEquals(0, conversationRepository.decrementUnreadCount(ALICE, "nobody@clipnest.test", 1));
+    }
+
+    private Conversation row(String ownerId, String partnerId) {
+        return mongoTemplate.findOne(ConversationRepositoryImpl.pairQuery(ownerId, partnerId), Conversation.class);
+    }
+
+    private static Message message(String content, LocalDateTime timestamp) {
+        Message message = new Message();
+        message.setSenderId(ALICE);
+        message.setSenderUsername("alice");
+        message.setReceiverId(BOB);
+        message.setReceiverUsername("bob");
+        message.setContent(content);
+        message.setType("text");
+        message.setTimestamp(timestamp);
+        return message;
+    }
+
+    private static ConversationSummary summary(String lastMessage, LocalDateTime lastTimestamp, long unreadCount) {
+        ConversationSummary summary = new ConversationSummary();
+        summary.setPartnerId(ALICE);
+        summary.setPartnerUsername("alice");
+        summary.setLastMessage(lastMessage);
+        summary.setLastSenderId(ALICE);
+        summary.setLastTimestamp(lastTimestamp);
+        summary.setUnreadCount(unreadCount);
+        return summary;
+    }
+}
@@ -0,0 +1,192 @@
+package com.group10.clipnest.repository;
+
+import com.group10.clipnest.model.Follow;
+import com.group10.clipnest.model.User;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Fires thousands of parallel follow/unfollow calls at one popular account against an
+ * in-memory Mongo stand-in and checks that edges and counters never disagree, and that
+ * duplicate edges from before the unique index existed can be cleared so it builds.
+ */
+@DataMongoTest
+class FollowRepositoryConcurrencyTest {
+
+    private static final int FOLLOWERS = 2000;
+    private static final String CELEBRITY = "celebrity@clipnest.test";
+
+    private static final MongoServer mongoServer = new MongoServer(new MemoryBackend());
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        mongoServer.bind();
+        registry.add("spring.data.mongodb.uri",
+                () -> "mongodb://" + mongoServer.getConnectionString().replace("mongodb://", "") + "/clipnest");
+    }
+
+    @AfterAll
+    static void stopServer() {
+        mongoServer.shutdownNow();
+    }
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoMappingContext mongoMappingContext;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.remove(new Query(), User.class);
+        mongoTemplate.remove(new Query(), Follow.class);
+        MongoPersistentEntityIndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoMappingContext);
+        resolver.resolveIndexFor(User.class).forEach(mongoTemplate.indexOps(User.class)::createIndex);
+        resolver.resolveIndexFor(Follow.class).forEach(mongoTemplate.indexOps(Follow.class)::createIndex);
+
+        List<User> users = new ArrayList<>();
+        users.add(user(CELEBRITY));
+        for (int i = 0; i < FOLLOWERS; i++) {
+            users.add(user(fan(i)));
+        }
+        mongoTemplate.insertAll(users);
+    }
+
+    @Test
+    void parallelDuplicateFollowsCountEachEdgeOnce() throws Exception {
+        List<Callable<Boolean>> calls = new ArrayList<>();
+        for (int i = 0; i < FOLLOWERS; i++) {
+            String fan = fan(i);
+            // Every fan double-taps follow
+            calls.add(() -> followRepository.follow(fan, CELEBRITY));
+            calls.add(() -> followRepository.follow(fan, CELEBRITY));
+        }
+
+        assertEquals(FOLLOWERS, runInParallel(calls));
+        assertEquals(FOLLOWERS, followRepository.count());
+        assertEquals(FOLLOWERS, counters(CELEBRITY).getFollowersCount());
+        assertEquals(FOLLOWERS, countFansFollowing(1));
+    }
+
+    @Test
+    void parallelMixedFollowAndUnfollowKeepCountersConsistent() throws Exception {
+        List<Callable<Boolean>> follows = new ArrayList<>();
+        for (int i = 0; i < FOLLOWERS; i++) {
+            String fan = fan(i);
+            follows.add(() -> followRepository.follow(fan, CELEBRITY));
+        }
+        runInParallel(follows);
+
+        // Even fans unfollow twice, odd fans follow again: only the even unfollows change anything
+        List<Callable<Boolean>> calls = new ArrayList<>();
+        for (int i = 0; i < FOLLOWERS; i++) {
+            String fan = fan(i);
+            if (i % 2 == 0) {
+                calls.add(() -> followRepository.unfollow(fan, CELEBRITY));
+                calls.add(() -> followRepository.unfollow(fan, CELEBRITY));
+            } else {
+                calls.add(() -> followRepository.follow(fan, CELEBRITY));
+            }
+        }
+
+        assertEquals(FOLLOWERS / 2, runInParallel(calls));
+        assertEquals(FOLLOWERS / 2, followRepository.count());
+        assertEquals(FOLLOWERS / 2, counters(CELEBRITY).getFollowersCount());
+        assertEquals(FOLLOWERS / 2, countFansFollowing(1));
+        assertEquals(FOLLOWERS / 2, countFansFollowing(0));
+    }
+
+    @Test
+    void duplicatesFromBeforeTheUniqueIndexAreRemovedSoItCanBeBuilt() {
+        mongoTemplate.indexOps(Follow.class).dropIndex("follower_followee");
+        for (int i = 0; i < 10; i++) {
+            // Follows that raced before the index existed: the first three fans got two edges each
+            for (int copy = 0; copy < (i < 3 ? 2 : 1); copy++) {
+                Follow edge = new Follow();
+                edge.setFollowerId(fan(i));
+                edge.setFolloweeId(CELEBRITY);
+                mongoTemplate.insert(edge);
+            }
+        }
+        IndexDefinition followerFollowee = declaredIndex("follower_followee");
+        assertThrows(DuplicateKeyException.class, () -> mongoTemplate.indexOps(Follow.class).createIndex(followerFollowee));
+
+        assertEquals(3, followRepository.removeDuplicateEdges());
+        mongoTemplate.indexOps(Follow.class).createIndex(followerFollowee);
+        assertEquals(10, followRepository.count());
+    }
+
+    // Runs the calls on a shared pool and returns how many reported a change
+    private int runInParallel(List<Callable<Boolean>> calls) throws Exception {
+        Collections.shuffle(calls);
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        try {
+            int changed = 0;
+            for (Future<Boolean> result : pool.invokeAll(calls)) {
+                if (result.get()) {
+                    changed++;
+                }
+            }
+            return changed;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private IndexDefinition declaredIndex(String name) {
+        for (IndexDefinition index : new MongoPersistentEntityIndexResolver(mongoMappingContext).resolveIndexFor(Follow.class)) {
+            if (name.equals(index.getIndexOptions().get("name"))) {
+                return index;
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    private User counters(String email) {
+        return mongoTemplate.findOne(new Query(Criteria.where("email").is(email)), User.class);
+    }
+
+    private long countFansFollowing(long followingCount) {
+        return mongoTemplate.count(new Query(Criteria.where("email").ne(CELEBRITY)
+                .and("followingCount").is(followingCount)), User.class);
+    }
+
+    private static String fan(int i) {
+        return "fan" + i + "@clipnest.test";
+    }
+
+    private static User user(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setUsername(email.substring(0, email.indexOf('@')));
+        return user;
+    }
+}
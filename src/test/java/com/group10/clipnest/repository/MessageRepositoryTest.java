@@ -0,0 +1,128 @@
+package com.group10.clipnest.repository;
+
+import com.group10.clipnest.model.Message;
+import com.group10.clipnest.payload.ConversationSummary;
+import com.group10.clipnest.payload.PageCursor;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Until the backfill has given every message a conversationId, history pages match on
+ * sender/receiver and still come back complete and in (timestamp, _id) order in both directions.
+ * The inbox rebuild gets one summary per partner from a single streamed aggregation.
+ */
+@DataMongoTest
+class MessageRepositoryTest {
+
+    private static final String ALICE = "alice@clipnest.test";
+    private static final String BOB = "bob@clipnest.test";
+
+    private static final MongoServer mongoServer = new MongoServer(new MemoryBackend());
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        mongoServer.bind();
+        registry.add("spring.data.mongodb.uri",
+                () -> "mongodb://" + mongoServer.getConnectionString().replace("mongodb://", "") + "/clipnest");
+    }
+
+    @AfterAll
+    static void stopServer() {
+        mongoServer.shutdownNow();
+    }
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.remove(new Query(), Message.class);
+    }
+
+    @Test
+    void senderReceiverFallbackPagesThroughBothDirections() {
+        List<String> sent = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            // Two messages share each timestamp, so the _id tie-break is exercised too
+            Message message = message(i % 2 == 0 ? ALICE : BOB, i % 2 == 0 ? BOB : ALICE, now.plusSeconds(i / 2), "m" + i);
+            mongoTemplate.insert(message);
+            sent.add(message.getContent());
+        }
+        mongoTemplate.insert(message(ALICE, "carol@clipnest.test", now, "elsewhere"));
+
+        List<String> backward = new ArrayList<>();
+        PageCursor before = null;
+        List<Message> page;
+        do {
+            page = messageRepository.findConversationPage(BOB, ALICE, before, null, 3, false);
+            backward.addAll(0, page.stream().map(Message::getContent).toList());
+            before = page.isEmpty() ? null : cursor(page.get(0));
+        } while (page.size() == 3);
+        assertEquals(sent, backward);
+
+        List<String> forward = new ArrayList<>();
+        PageCursor after = cursor(messageRepository.findConversationPage(ALICE, BOB, null, null, 7, false).get(0));
+        do {
+            page = messageRepository.findConversationPage(ALICE, BOB, null, after, 2, false);
+            forward.addAll(page.stream().map(Message::getContent).toList());
+            after = page.isEmpty() ? null : cursor(page.get(page.size() - 1));
+        } while (page.size() == 2);
+        assertEquals(sent.subList(1, sent.size()), forward);
+    }
+
+    @Test
+    void conversationSummariesStreamOnePerPartner() {
+        mongoTemplate.insert(message(ALICE, BOB, now.minusSeconds(2), "hi bob"));
+        mongoTemplate.insert(message(BOB, ALICE, now.minusSeconds(1), "hi alice"));
+        mongoTemplate.insert(message(BOB, ALICE, now, "still there?"));
+        mongoTemplate.insert(message("carol@clipnest.test", ALICE, now.minusSeconds(5), "hello"));
+
+        Map<String, ConversationSummary> summaries;
+        try (Stream<ConversationSummary> stream = messageRepository.streamConversationSummaries(ALICE)) {
+            summaries = stream.collect(Collectors.toMap(ConversationSummary::getPartnerId, summary -> summary));
+        }
+
+        assertEquals(2, summaries.size());
+        assertEquals("still there?", summaries.get(BOB).getLastMessage());
+        assertEquals(2, summaries.get(BOB).getUnreadCount());
+        assertEquals(1, summaries.get("carol@clipnest.test").getUnreadCount());
+    }
+
+    private static PageCursor cursor(Message message) {
+        return new PageCursor(message.getTimestamp(), message.getId());
+    }
+
+    private static Message message(String senderId, String receiverId, LocalDateTime timestamp, String content) {
+        Message message = new Message();
+        message.setSenderId(senderId);
+        message.setReceiverId(receiverId);
+        message.setContent(content);
+        message.setType("text");
+        message.setTimestamp(timestamp);
+        return message;
+    }
+}
@@ -0,0 +1,276 @@
+package com.group10.clipnest.repository;
+
+import com.group10.clipnest.model.GroupMember;
+import com.group10.clipnest.model.Message;
+import com.group10.clipnest.model.User;
+import com.group10.clipnest.payload.ConversationSummary;
+import com.group10.clipnest.payload.PageCursor;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Runs every message and user repository query against a real MongoDB, explains the commands
+ * it sends and fails on a winning plan that scans the collection or sorts documents in memory.
+ * The in-memory stand-in the other repository tests use has no planner, so this needs Docker and
+ * is skipped without it. A query missing from the list is not checked: add new ones here.
+ */
+@DataMongoTest
+@Testcontainers(disabledWithoutDocker = true)
+class RepositoryQueryPlanTest {
+
+    private static final String ALICE = "alice@clipnest.test";
+    private static final String BOB = "bob@clipnest.test";
+    private static final String GROUP = new ObjectId().toHexString();
+
+    private static final Set<String> QUERY_COMMANDS = Set.of("find", "aggregate", "count", "distinct", "update", "delete", "findAndModify");
+
+    private static final List<BsonDocument> captured = new CopyOnWriteArrayList<>();
+
+    @Container
+    private static final MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", () -> mongo.getReplicaSetUrl("clipnest"));
+    }
+
+    @TestConfiguration
+    static class CommandCapture {
+
+        @Bean
+        MongoClientSettingsBuilderCustomizer captureQueries() {
+            return builder -> builder.addCommandListener(new CommandListener() {
+                @Override
+                public void commandStarted(CommandStartedEvent event) {
+                    if (QUERY_COMMANDS.contains(event.getCommandName())) {
+                        captured.add(event.getCommand().clone());
+                    }
+                }
+            });
+        }
+    }
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoMappingContext mongoMappingContext;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.remove(new Query(), User.class);
+        mongoTemplate.remove(new Query(), Message.class);
+        MongoPersistentEntityIndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoMappingContext);
+        resolver.resolveIndexFor(User.class).forEach(mongoTemplate.indexOps(User.class)::createIndex);
+        resolver.resolveIndexFor(Message.class).forEach(mongoTemplate.indexOps(Message.class)::createIndex);
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            User user = new User();
+            user.setEmail(i == 0 ? ALICE : i == 1 ? BOB : "user" + i + "@clipnest.test");
+            user.setUsername(i == 0 ? "alice" : i == 1 ? "bob" : "user" + i);
+            user.setInterests(List.of("interest" + i % 5));
+            user.setFollowersCount(i);
+            users.add(user);
+        }
+        mongoTemplate.insertAll(users);
+
+        List<Message> messages = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.now().minusDays(1);
+        for (int i = 0; i < 500; i++) {
+            Message message = new Message();
+            message.setTimestamp(start.plusSeconds(i));
+            message.setContent("message " + i);
+            if (i % 3 == 0) {
+                message.setGroupId(GROUP);
+                message.setGroupMessage(true);
+                message.setSenderId(i % 2 == 0 ? ALICE : BOB);
+            } else {
+                boolean fromAlice = i % 2 == 0;
+                message.setSenderId(fromAlice ? ALICE : "user" + i % 50 + "@clipnest.test");
+                message.setReceiverId(fromAlice ? "user" + i % 50 + "@clipnest.test" : ALICE);
+                message.setConversationId(Message.conversationIdOf(message.getSenderId(), message.getReceiverId()));
+            }
+            messages.add(message);
+        }
+        mongoTemplate.insertAll(messages);
+    }
+
+    @TestFactory
+    Stream<DynamicTest> messageQueriesUseIndexes() {
+        LocalDateTime watermark = LocalDateTime.now().minusHours(12);
+        PageCursor cursor = new PageCursor(watermark, new ObjectId().toHexString());
+        return Stream.of(
+                planCheck("findConversationPage", () -> messageRepository.findConversationPage(ALICE, BOB, null, null, 51, true)),
+                planCheck("findConversationPage before", () -> messageRepository.findConversationPage(ALICE, BOB, cursor, null, 51, true)),
+                planCheck("findConversationPage after", () -> messageRepository.findConversationPage(ALICE, BOB, null, cursor, 51, true)),
+                planCheck("findConversationPage by sender/receiver", () -> messageRepository.findConversationPage(ALICE, BOB, null, null, 51, false)),
+                planCheck("findConversationPage by sender/receiver before", () -> messageRepository.findConversationPage(ALICE, BOB, cursor, null, 51, false)),
+                planCheck("findConversationPage by sender/receiver after", () -> messageRepository.findConversationPage(ALICE, BOB, null, cursor, 51, false)),
+                planCheck("findGroupPage", () -> messageRepository.findGroupPage(GROUP, null, null, 51)),
+                planCheck("findGroupPage before", () -> messageRepository.findGroupPage(GROUP, cursor, null, 51)),
+                planCheck("findGroupPage after", () -> messageRepository.findGroupPage(GROUP, null, cursor, 51)),
+                planCheck("countGroupUnread", () -> messageRepository.countGroupUnread(GROUP, ALICE, null, null, 100)),
+                planCheck("countGroupUnread past watermark", () -> messageRepository.countGroupUnread(GROUP, ALICE, watermark, cursor.getId(), 100)),
+                planCheck("countGroupsUnread", () -> messageRepository.countGroupsUnread(List.of(
+                        membership(GROUP, ALICE, null, null), membership(GROUP, BOB, watermark, cursor.getId())), 100)),
+                planCheck("streamConversationSummaries", () -> {
+                    try (Stream<ConversationSummary> summaries = messageRepository.streamConversationSummaries(ALICE)) {
+                        summaries.count();
+                    }
+                }),
+                planCheck("markConversationRead", () -> messageRepository.markConversationRead(ALICE, BOB, null, null)),
+                planCheck("markConversationRead up to", () -> messageRepository.markConversationRead(ALICE, BOB, watermark, cursor.getId())),
+                planCheck("backfillConversationIds", () -> messageRepository.backfillConversationIds(1000)),
+                planCheck("hasMissingConversationIds", () -> messageRepository.hasMissingConversationIds()),
+                planCheck("acknowledge", () -> messageRepository.acknowledge(ALICE, List.of(cursor.getId()))),
+                planCheck("markRead", () -> messageRepository.markRead(ALICE, BOB, List.of(cursor.getId()))),
+                planCheck("findByReceiverIdAndIsReadFalseOrderByTimestampDesc", () -> messageRepository.findByReceiverIdAndIsReadFalseOrderByTimestampDesc(ALICE)),
+                planCheck("countByReceiverIdAndSenderIdAndIsReadFalse", () -> messageRepository.countByReceiverIdAndSenderIdAndIsReadFalse(ALICE, BOB)));
+    }
+
+    // findAll, streamSearchFields and streamAllEmails read every user on purpose and are left out
+    @TestFactory
+    Stream<DynamicTest> userQueriesUseIndexes() {
+        List<String> emails = List.of(ALICE, BOB);
+        return Stream.of(
+                planCheck("findByEmail", () -> userRepository.findByEmail(ALICE)),
+                planCheck("findByUsername", () -> userRepository.findByUsername("alice")),
+                planCheck("findProfileByUsername", () -> userRepository.findProfileByUsername("alice")),
+                planCheck("findPrincipalByEmail", () -> userRepository.findPrincipalByEmail(ALICE)),
+                planCheck("findProfilesByUsernameRegex", () -> userRepository.findProfilesByUsernameRegex("^user1", Limit.of(11))),
+                planCheck("findFollowCountsByEmail", () -> userRepository.findFollowCountsByEmail(ALICE)),
+                planCheck("findFollowListEntriesByEmailIn", () -> userRepository.findFollowListEntriesByEmailIn(emails)),
+                planCheck("findProfilesByEmailIn", () -> userRepository.findProfilesByEmailIn(emails)),
+                planCheck("findProfilesByUsernameIn", () -> userRepository.findProfilesByUsernameIn(List.of("alice", "bob"))),
+                planCheck("findSuggestionProfilesByEmailIn", () -> userRepository.findSuggestionProfilesByEmailIn(emails)),
+                planCheck("findMostFollowedByInterestsIn", () -> userRepository.findMostFollowedByInterestsIn(List.of("interest1", "interest2"), Limit.of(50))),
+                planCheck("findMostFollowed", () -> userRepository.findMostFollowed(Limit.of(50))),
+                planCheck("findProfilesPage", () -> userRepository.findProfilesPage(Limit.of(21))),
+                planCheck("findProfilesPageAfter", () -> userRepository.findProfilesPageAfter(new ObjectId(), Limit.of(21))),
+                planCheck("streamProfiles", () -> {
+                    try (Stream<User> profiles = userRepository.streamProfiles()) {
+                        profiles.limit(10).forEach(profile -> { });
+                    }
+                }));
+    }
+
+    private static GroupMember membership(String groupId, String memberId, LocalDateTime lastReadAt, String lastReadMessageId) {
+        return new GroupMember(null, groupId, memberId, null, null, lastReadAt, lastReadMessageId);
+    }
+
+    private DynamicTest planCheck(String name, Runnable call) {
+        return DynamicTest.dynamicTest(name, () -> {
+            captured.clear();
+            call.run();
+            List<BsonDocument> commands = List.copyOf(captured);
+            assertFalse(commands.isEmpty(), name + " sent no query to Mongo");
+            for (BsonDocument command : commands) {
+                Document explain = mongoTemplate.getDb().runCommand(new Document("explain", explainable(command))
+                        .append("verbosity", "queryPlanner"));
+                String problem = findUnindexedStage(BsonDocument.parse(explain.toJson()));
+                if (problem != null) {
+                    fail(name + " runs a " + problem + ": " + command.toJson());
+                }
+            }
+        });
+    }
+
+    // The driver adds session, cluster time and $db fields that explain rejects inside its argument
+    private static BsonDocument explainable(BsonDocument command) {
+        BsonDocument copy = new BsonDocument();
+        command.forEach((key, value) -> {
+            if (!key.startsWith("$") && !Set.of("lsid", "txnNumber", "writeConcern", "readConcern").contains(key)) {
+                copy.put(key, value);
+            }
+        });
+        return copy;
+    }
+
+    // Only the winning plans count; a sort above a group orders grouped rows, not documents
+    private static String findUnindexedStage(BsonValue value) {
+        if (value.isArray()) {
+            for (BsonValue element : value.asArray()) {
+                String problem = findUnindexedStage(element);
+                if (problem != null) {
+                    return problem;
+                }
+            }
+            return null;
+        }
+        if (!value.isDocument()) {
+            return null;
+        }
+        BsonDocument document = value.asDocument();
+        if (document.isString("stage")) {
+            String stage = document.getString("stage").getValue();
+            if (stage.equals("COLLSCAN")) {
+                return "COLLSCAN";
+            }
+            if (stage.equals("SORT") && !containsStage(document, "GROUP")) {
+                return "blocking SORT";
+            }
+        }
+        for (String key : document.keySet()) {
+            if (!key.equals("rejectedPlans")) {
+                String problem = findUnindexedStage(document.get(key));
+                if (problem != null) {
+                    return problem;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean containsStage(BsonValue value, String stage) {
+        if (value.isArray()) {
+            return value.asArray().stream().anyMatch(element -> containsStage(element, stage));
+        }
+        if (!value.isDocument()) {
+            return false;
+        }
+        BsonDocument document = value.asDocument();
+        if (document.isString("stage") && document.getString("stage").getValue().equals(stage)) {
+            return true;
+        }
+        return document.values().stream().anyMatch(nested -> containsStage(nested, stage));
+    }
+}
@@ -0,0 +1,57 @@
+package com.group10.clipnest.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Short prefixes match more terms than max-scan; they must still rank across the whole range,
+ * not just its alphabetically first max-scan terms.
+ */
+class UserSearchIndexTest {
+
+    @Test
+    void prefixLongerThanMaxScanStillRanksTheWholeRange() {
+        UserSearchIndex index = new UserSearchIndex(10, 1000);
+        List<SearchableUser> users = new ArrayList<>();
+        // Alphabetically later usernames have more followers
+        for (int i = 0; i < 200; i++) {
+            users.add(user(String.format("al%03d", i), i));
+        }
+        users.add(user("bo", 5000));
+        users.add(user("al", 1));
+        index.load(users.stream());
+
+        assertEquals(List.of("al199", "al198", "al197"), usernames(index.search("a", 3, null)));
+        // The exact username still comes first
+        assertEquals(List.of("al", "al199", "al198"), usernames(index.search("al", 3, null)));
+        assertEquals(List.of("al199", "al189", "al179"),
+                usernames(index.search("al1", 3, user -> user.getUsername().endsWith("9"))));
+    }
+
+    @Test
+    void overlayUpdatesShadowRankedSnapshotEntries() {
+        UserSearchIndex index = new UserSearchIndex(10, 1000);
+        List<SearchableUser> users = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            users.add(user(String.format("al%03d", i), i));
+        }
+        index.load(users.stream());
+
+        index.upsert(user("al049", 0));
+        index.upsert(user("al000", 1000));
+
+        assertEquals(List.of("al000", "al048"), usernames(index.search("a", 2, null)));
+    }
+
+    private static SearchableUser user(String username, long followers) {
+        return new SearchableUser(username + "@clipnest.test", username, null, followers);
+    }
+
+    private static List<String> usernames(List<SearchableUser> users) {
+        return users.stream().map(SearchableUser::getUsername).toList();
+    }
+}
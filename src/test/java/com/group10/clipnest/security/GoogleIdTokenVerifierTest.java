@@ -0,0 +1,138 @@
+package com.group10.clipnest.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ID tokens are checked against a key set read from a local stand-in file: only tokens signed
+ * by a listed key, unexpired, from Google's issuer and for our client id get through, and a
+ * rotated key is picked up on refresh.
+ */
+class GoogleIdTokenVerifierTest {
+
+    private static final String CLIENT_ID = "clipnest-test.apps.googleusercontent.com";
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private KeyPair signingKey;
+    private Path keySetFile;
+    private GoogleIdTokenVerifier verifier;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        signingKey = newKeyPair();
+        keySetFile = tempDir.resolve("certs.json");
+        writeKeySet(Map.of("key-1", signingKey));
+        verifier = new GoogleIdTokenVerifier(new DefaultResourceLoader(), objectMapper,
+                keySetFile.toUri().toString(), CLIENT_ID, Duration.ofSeconds(5), Duration.ofSeconds(60));
+    }
+
+    @Test
+    void acceptsValidToken() {
+        String token = token(signingKey, "key-1", "https://accounts.google.com", CLIENT_ID, 3600);
+
+        assertEquals("alice@clipnest.test", verifier.verify(token).orElseThrow().get("email", String.class));
+    }
+
+    @Test
+    void rejectsWrongAudienceIssuerOrExpiredToken() {
+        assertTrue(verifier.verify(token(signingKey, "key-1", "https://accounts.google.com", "someone-else", 3600)).isEmpty());
+        assertTrue(verifier.verify(token(signingKey, "key-1", "https://evil.example", CLIENT_ID, 3600)).isEmpty());
+        assertTrue(verifier.verify(token(signingKey, "key-1", "accounts.google.com", CLIENT_ID, -600)).isEmpty());
+    }
+
+    @Test
+    void rejectsEveryTokenWithoutConfiguredClientIds() {
+        GoogleIdTokenVerifier unconfigured = new GoogleIdTokenVerifier(new DefaultResourceLoader(), objectMapper,
+                keySetFile.toUri().toString(), " ", Duration.ofSeconds(5), Duration.ofSeconds(60));
+
+        assertTrue(unconfigured.verify(token(signingKey, "key-1", "https://accounts.google.com", CLIENT_ID, 3600)).isEmpty());
+        assertTrue(unconfigured.verify(token(signingKey, "key-1", "https://accounts.google.com", "", 3600)).isEmpty());
+    }
+
+    @Test
+    void rejectsTokenSignedWithUnlistedKey() throws Exception {
+        KeyPair forged = newKeyPair();
+
+        assertTrue(verifier.verify(token(forged, "key-1", "https://accounts.google.com", CLIENT_ID, 3600)).isEmpty());
+        assertTrue(verifier.verify(token(forged, "key-9", "https://accounts.google.com", CLIENT_ID, 3600)).isEmpty());
+    }
+
+    @Test
+    void picksUpRotatedKeyOnRefresh() throws Exception {
+        verifier.refresh();
+        KeyPair rotated = newKeyPair();
+        writeKeySet(Map.of("key-1", signingKey, "key-2", rotated));
+        String token = token(rotated, "key-2", "https://accounts.google.com", CLIENT_ID, 3600);
+
+        // Just refreshed, so an unknown key id does not trigger another read yet
+        assertTrue(verifier.verify(token).isEmpty());
+        verifier.refresh();
+        assertTrue(verifier.verify(token).isPresent());
+    }
+
+    private static String token(KeyPair key, String keyId, String issuer, String audience, long expiresInSeconds) {
+        return Jwts.builder()
+                .setHeaderParam("kid", keyId)
+                .setIssuer(issuer)
+                .setAudience(audience)
+                .setSubject("1234567890")
+                .claim("email", "alice@clipnest.test")
+                .claim("email_verified", true)
+                .claim("name", "Alice")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + expiresInSeconds * 1000))
+                .signWith(key.getPrivate(), SignatureAlgorithm.RS256)
+                .compact();
+    }
+
+    private void writeKeySet(Map<String, KeyPair> keys) throws Exception {
+        List<Map<String, String>> jwks = new ArrayList<>();
+        keys.forEach((keyId, key) -> {
+            RSAPublicKey publicKey = (RSAPublicKey) key.getPublic();
+            jwks.add(Map.of("kty", "RSA", "use", "sig", "alg", "RS256", "kid", keyId,
+                    "n", base64Url(publicKey.getModulus()),
+                    "e", base64Url(publicKey.getPublicExponent())));
+        });
+        Files.writeString(keySetFile, objectMapper.writeValueAsString(Map.of("keys", jwks)));
+    }
+
+    private static String base64Url(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        // Drop the sign byte BigInteger adds to a positive value with the top bit set
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static KeyPair newKeyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return generator.generateKeyPair();
+    }
+}
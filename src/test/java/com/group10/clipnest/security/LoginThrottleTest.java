@@ -0,0 +1,67 @@
+package com.group10.clipnest.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Failed guesses at an account throttle the address making them first, so knowing someone's email
+ * is not enough to lock them out from elsewhere; guesses spread over many addresses still hit the
+ * higher per-account ceiling, and one address spraying many accounts is throttled as a whole.
+ */
+class LoginThrottleTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LoginThrottle throttle = new LoginThrottle(meterRegistry, 10, 3, 6, Duration.ofMinutes(15), 1000);
+
+    @Test
+    void accountFailuresOnlyThrottleTheGuessingAddress() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(throttle.tryAcquire("203.0.113.7", "alice@clipnest.test"));
+            throttle.recordFailure("203.0.113.7", "alice@clipnest.test");
+        }
+
+        assertFalse(throttle.tryAcquire("203.0.113.7", " Alice@ClipNest.test"));
+        assertTrue(throttle.tryAcquire("198.51.100.2", "alice@clipnest.test"));
+        assertTrue(throttle.tryAcquire("203.0.113.7", "bob@clipnest.test"));
+        assertEquals(1.0, meterRegistry.get("clipnest.auth.login.throttled").tag("scope", "account").counter().count());
+    }
+
+    @Test
+    void addressSprayingAccountsIsThrottled() {
+        for (int i = 0; i < 10; i++) {
+            throttle.recordFailure("203.0.113.7", "user" + i + "@clipnest.test");
+        }
+
+        assertFalse(throttle.tryAcquire("203.0.113.7", "someone@clipnest.test"));
+        assertTrue(throttle.tryAcquire("198.51.100.2", "someone@clipnest.test"));
+    }
+
+    @Test
+    void guessesFromManyAddressesHitTheAccountCeiling() {
+        for (int i = 0; i < 6; i++) {
+            String address = "203.0.113." + i;
+            assertTrue(throttle.tryAcquire(address, "alice@clipnest.test"));
+            throttle.recordFailure(address, "alice@clipnest.test");
+        }
+
+        assertFalse(throttle.tryAcquire("198.51.100.2", "alice@clipnest.test"));
+        assertTrue(throttle.tryAcquire("198.51.100.2", "bob@clipnest.test"));
+        assertEquals(1.0, meterRegistry.get("clipnest.auth.login.throttled").tag("scope", "account-total").counter().count());
+    }
+
+    @Test
+    void successClearsTheAccountCount() {
+        throttle.recordFailure("203.0.113.7", "alice@clipnest.test");
+        throttle.recordFailure("203.0.113.7", "alice@clipnest.test");
+        throttle.recordSuccess("203.0.113.7", "alice@clipnest.test");
+        throttle.recordFailure("203.0.113.7", "alice@clipnest.test");
+
+        assertTrue(throttle.tryAcquire("203.0.113.7", "alice@clipnest.test"));
+    }
+}
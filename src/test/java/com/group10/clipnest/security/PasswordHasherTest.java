@@ -0,0 +1,76 @@
+package com.group10.clipnest.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A saturated hasher turns callers away at once instead of queueing them without bound, and
+ * hashes made with a lower work factor are flagged for rehashing.
+ */
+class PasswordHasherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void saturatedHasherRejectsImmediately() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blockingEncoder = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hash:" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encode(rawPassword).equals(encodedPassword);
+            }
+        };
+        PasswordHasher hasher = new PasswordHasher(blockingEncoder, meterRegistry, 1, 1, 5000);
+
+        // One hash running, one queued: the pool and its queue are full
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> hasher.encode("first"));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> hasher.encode("second"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("clipnest.auth.password.queue").gauge().value() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        long started = System.nanoTime();
+        assertThrows(PasswordHasher.BusyException.class, () -> hasher.encode("third"));
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(1.0, meterRegistry.counter("clipnest.auth.password.rejected").count());
+
+        release.countDown();
+        assertEquals("hash:first", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hash:second", queued.get(5, TimeUnit.SECONDS));
+        hasher.shutdown();
+    }
+
+    @Test
+    void weakerWorkFactorNeedsRehash() {
+        String weakHash = new BCryptPasswordEncoder(4).encode("secret");
+        PasswordHasher hasher = new PasswordHasher(new BCryptPasswordEncoder(5), meterRegistry, 1, 4, 5000);
+
+        assertTrue(hasher.matches("secret", weakHash));
+        assertTrue(hasher.needsRehash(weakHash));
+        assertFalse(hasher.needsRehash(hasher.encode("secret")));
+        assertFalse(hasher.needsRehash(""));
+        hasher.shutdown();
+    }
+}